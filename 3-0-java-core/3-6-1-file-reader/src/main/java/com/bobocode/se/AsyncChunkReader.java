@@ -0,0 +1,86 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+/**
+ * {@link AsyncChunkReader} reads a file chunk by chunk with an {@link AsynchronousFileChannel}. Each read is started
+ * from the completion handler of the previous one, so no thread is blocked while waiting for the storage, and chunks
+ * are passed to the consumer one at a time in file order.
+ */
+class AsyncChunkReader implements CompletionHandler<Integer, ByteBuffer> {
+    private final Path path;
+    private final AsynchronousFileChannel channel;
+    private final DirectBufferPool bufferPool;
+    private final Consumer<ByteBuffer> chunkConsumer;
+    private final CompletableFuture<Long> result = new CompletableFuture<>();
+    private long position;
+
+    private AsyncChunkReader(Path path, AsynchronousFileChannel channel, DirectBufferPool bufferPool,
+                             Consumer<ByteBuffer> chunkConsumer) {
+        this.path = path;
+        this.channel = channel;
+        this.bufferPool = bufferPool;
+        this.chunkConsumer = chunkConsumer;
+    }
+
+    /**
+     * Starts reading a file
+     *
+     * @return a future that completes with the number of read bytes when the whole file is read
+     */
+    static CompletableFuture<Long> read(Path path, DirectBufferPool bufferPool, Consumer<ByteBuffer> chunkConsumer) {
+        AsynchronousFileChannel channel;
+        try {
+            channel = AsynchronousFileChannel.open(path);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new FileReaderException("Cannot open file " + path, e));
+        }
+        AsyncChunkReader reader = new AsyncChunkReader(path, channel, bufferPool, chunkConsumer);
+        ByteBuffer buffer = bufferPool.acquire();
+        channel.read(buffer, 0, buffer, reader);
+        return reader.result;
+    }
+
+    @Override
+    public void completed(Integer read, ByteBuffer buffer) {
+        if (read < 0) {
+            finish(buffer, null);
+            return;
+        }
+        buffer.flip();
+        try {
+            chunkConsumer.accept(buffer.asReadOnlyBuffer());
+        } catch (RuntimeException e) {
+            finish(buffer, e);
+            return;
+        }
+        position += read;
+        buffer.clear();
+        channel.read(buffer, position, buffer, this);
+    }
+
+    @Override
+    public void failed(Throwable exc, ByteBuffer buffer) {
+        finish(buffer, new FileReaderException("Cannot read file " + path, exc));
+    }
+
+    private void finish(ByteBuffer buffer, Throwable failure) {
+        bufferPool.release(buffer);
+        try {
+            channel.close();
+        } catch (IOException e) {
+            failure = failure != null ? failure : new FileReaderException("Cannot close file " + path, e);
+        }
+        if (failure != null) {
+            result.completeExceptionally(failure);
+        } else {
+            result.complete(position);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.bobocode.se;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * {@link DirectBufferPool} is a thread-safe pool of direct {@link ByteBuffer}s of the same size. Allocating a direct
+ * buffer is expensive, so buffers are reused by subsequent reads. If the pool is empty, a new buffer is allocated, and
+ * if the pool is full, a released buffer is left to the garbage collector, so the number of pooled buffers is bounded.
+ */
+class DirectBufferPool {
+    private final int bufferSize;
+    private final BlockingQueue<ByteBuffer> buffers;
+
+    DirectBufferPool(int bufferSize, int maxPooledBuffers) {
+        this.bufferSize = bufferSize;
+        this.buffers = new ArrayBlockingQueue<>(maxPooledBuffers);
+    }
+
+    ByteBuffer acquire() {
+        ByteBuffer buffer = buffers.poll();
+        return buffer != null ? buffer : ByteBuffer.allocateDirect(bufferSize);
+    }
+
+    void release(ByteBuffer buffer) {
+        buffer.clear();
+        buffers.offer(buffer);
+    }
+}
@@ -1,11 +1,48 @@
 package com.bobocode.se;
 
-import com.bobocode.util.ExerciseNotCompletedException;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.stream.Collectors.joining;
 
 /**
  * {@link FileReaders} provides an API that allow to read whole file into a {@link String} by file name.
+ * <p>
+ * Large files should not be read into a {@link String}, since it copies the whole content onto the heap twice (bytes
+ * into chars, and chars into a string). For them {@link FileReaders} also provides an NIO API that maps a file into
+ * memory with {@link FileChannel#map}, so its content is read directly from the OS page cache.
+ * <p>
+ * Files can also be read asynchronously with an {@link AsynchronousFileChannel}, so the calling thread is not blocked
+ * while the file is read.
  */
 public class FileReaders {
+    private static final long MIN_CHUNK_SIZE = 1024 * 1024;
+    private static final int CHUNKS_PER_WORKER = 4;
+    private static final int BOUNDARY_SEARCH_BUFFER_SIZE = 8 * 1024;
+    private static final int ASYNC_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_POOLED_BUFFERS = 256;
+    private static final DirectBufferPool BUFFER_POOL = new DirectBufferPool(ASYNC_CHUNK_SIZE, MAX_POOLED_BUFFERS);
 
     /**
      * Returns a {@link String} that contains whole text from the file specified by name.
@@ -14,6 +51,271 @@ public class FileReaders {
      * @return string that holds whole file content
      */
     public static String readWholeFile(String fileName) {
-        throw new ExerciseNotCompletedException(); //todo
+        Path filePath = createPathFromFileName(fileName);
+        try (Stream<String> fileLinesStream = openFileLinesStream(filePath)) {
+            return fileLinesStream.collect(joining("\n"));
+        }
+    }
+
+    private static Stream<String> openFileLinesStream(Path filePath) {
+        try {
+            return Files.lines(filePath);
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot create stream of file lines!", e);
+        }
+    }
+
+    private static Path createPathFromFileName(String fileName) {
+        Objects.requireNonNull(fileName);
+        URL fileUrl = FileReaders.class.getClassLoader().getResource(fileName);
+        if (fileUrl == null) throw new FileReaderException("File " + fileName + " is not found in the classpath");
+        try {
+            return Paths.get(fileUrl.toURI());
+        } catch (URISyntaxException e) {
+            throw new FileReaderException("Invalid file URL", e);
+        }
+    }
+
+    /**
+     * Maps a whole file into memory and returns it as a read-only {@link ByteBuffer}. Nothing is copied onto the heap,
+     * bytes are read from the OS page cache when they are accessed. The mapping stays valid until the buffer is
+     * garbage collected.
+     *
+     * @param path a path to a file
+     * @return a read-only buffer of file bytes
+     * @throws FileReaderException if the file cannot be read or is larger than 2 GB
+     */
+    public static ByteBuffer mapWholeFile(Path path) {
+        try (FileChannel channel = FileChannel.open(path)) {
+            long fileSize = channel.size();
+            if (fileSize > Integer.MAX_VALUE) {
+                throw new FileReaderException("File " + path + " is too large to be mapped into one buffer: " + fileSize);
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, fileSize);
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot map file " + path, e);
+        }
+    }
+
+    /**
+     * Maps a whole file into memory and returns it as a {@link CharSequence}, where each byte is one char. It suits
+     * ASCII and ISO-8859-1 files, and can be passed directly to {@link java.util.regex.Pattern#matcher(CharSequence)}
+     * or other APIs that accept char sequences. Chars are decoded only when they are accessed, a {@link String} is
+     * created only by {@link CharSequence#toString()}.
+     *
+     * @param path a path to a file
+     * @return a char sequence view of the file
+     * @throws FileReaderException if the file cannot be read or is larger than 2 GB
+     */
+    public static CharSequence mapWholeFileAsChars(Path path) {
+        return new ByteCharSequence(mapWholeFile(path));
+    }
+
+    /**
+     * Returns a lazy stream of UTF-8 file lines, see {@link FileReaders#lines(Path, Charset)}
+     *
+     * @param path a path to a file
+     * @return a stream of file lines
+     * @throws FileReaderException if the file cannot be read
+     */
+    public static Stream<String> lines(Path path) {
+        return lines(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Returns a lazy stream of file lines. The file is mapped into memory in consecutive windows, so files of any size
+     * can be processed, and only the current line is copied onto the heap. Lines are terminated by {@code \n} or
+     * {@code \r\n}. The stream must be closed to release the file.
+     *
+     * @param path    a path to a file
+     * @param charset a charset of the file, that must encode {@code \r} and {@code \n} as single bytes (e.g. UTF-8)
+     * @return a stream of file lines
+     * @throws FileReaderException      if the file cannot be read
+     * @throws IllegalArgumentException if the charset is not supported
+     */
+    public static Stream<String> lines(Path path, Charset charset) {
+        MappedLines.checkCharset(charset);
+        FileChannel channel = openChannel(path);
+        try {
+            return lines(path, channel, charset, 0, sizeOf(path, channel))
+                    .onClose(() -> closeChannel(path, channel));
+        } catch (RuntimeException e) {
+            closeChannel(path, channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a parallel stream of UTF-8 file lines, see {@link FileReaders#parallelLines(Path, Charset, boolean)}
+     *
+     * @param path    a path to a file
+     * @param ordered whether lines must keep the file order
+     * @return a parallel stream of file lines
+     * @throws FileReaderException if the file cannot be read
+     */
+    public static Stream<String> parallelLines(Path path, boolean ordered) {
+        return parallelLines(path, StandardCharsets.UTF_8, ordered);
+    }
+
+    /**
+     * Returns a parallel stream of file lines. The file is split into chunks of whole lines, which are mapped into
+     * memory and decoded by different workers of the common {@link ForkJoinPool}.
+     * <p>
+     * An ordered stream keeps the file order of lines for operations like {@link Stream#forEachOrdered} or
+     * {@link Stream#collect}, which costs some buffering. If the order does not matter, an unordered stream lets
+     * workers pass lines downstream as soon as they are decoded. The stream must be closed to release the file.
+     *
+     * @param path    a path to a file
+     * @param charset a charset of the file, that must encode {@code \r} and {@code \n} as single bytes (e.g. UTF-8)
+     * @param ordered whether lines must keep the file order
+     * @return a parallel stream of file lines
+     * @throws FileReaderException      if the file cannot be read
+     * @throws IllegalArgumentException if the charset is not supported
+     */
+    public static Stream<String> parallelLines(Path path, Charset charset, boolean ordered) {
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, sizeOf(path) / (CHUNKS_PER_WORKER * ForkJoinPool.getCommonPoolParallelism()));
+        return parallelLines(path, charset, ordered, chunkSize);
+    }
+
+    static Stream<String> parallelLines(Path path, Charset charset, boolean ordered, long chunkSize) {
+        MappedLines.checkCharset(charset);
+        FileChannel channel = openChannel(path);
+        try {
+            long[] boundaries = lineAlignedBoundaries(path, channel, chunkSize);
+            Stream<String> lines = IntStream.range(0, boundaries.length - 1)
+                    .parallel()
+                    .mapToObj(i -> lines(path, channel, charset, boundaries[i], boundaries[i + 1]))
+                    .flatMap(Function.identity())
+                    .onClose(() -> closeChannel(path, channel));
+            return ordered ? lines : lines.unordered();
+        } catch (RuntimeException e) {
+            closeChannel(path, channel);
+            throw e;
+        }
+    }
+
+    /**
+     * Splits a file into chunks of about {@code chunkSize} bytes, that start at the beginning of a line. Each chunk but
+     * the first one starts right after the first {@code \n} found at or after its nominal position.
+     *
+     * @return chunk boundaries, the first is 0 and the last is the file size
+     */
+    private static long[] lineAlignedBoundaries(Path path, FileChannel channel, long chunkSize) {
+        long fileSize = sizeOf(path, channel);
+        LongStream.Builder boundaries = LongStream.builder().add(0);
+        ByteBuffer buffer = ByteBuffer.allocate(BOUNDARY_SEARCH_BUFFER_SIZE);
+        long position = Math.min(chunkSize, fileSize);
+        try {
+            while (position < fileSize) {
+                long boundary = nextLineStart(channel, position, buffer);
+                if (boundary >= fileSize) {
+                    break;
+                }
+                boundaries.add(boundary);
+                position = boundary + Math.min(chunkSize, fileSize);
+            }
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot read file " + path, e);
+        }
+        return LongStream.concat(boundaries.build(), LongStream.of(fileSize)).toArray();
+    }
+
+    private static long nextLineStart(FileChannel channel, long position, ByteBuffer buffer) throws IOException {
+        while (true) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                return channel.size();
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+    }
+
+    /**
+     * Reads a whole UTF-8 file asynchronously, see {@link FileReaders#readWholeFileAsync(Path, Charset)}
+     *
+     * @param path a path to a file
+     * @return a future of the file content
+     */
+    public static CompletableFuture<String> readWholeFileAsync(Path path) {
+        return readWholeFileAsync(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a whole file asynchronously. The calling thread only starts reading, the file is read chunk by chunk on
+     * the default thread pool of {@link AsynchronousFileChannel}, and the returned future completes with the file
+     * content. Unlike {@link FileReaders#readWholeFile(String)}, line terminators are kept as they are.
+     *
+     * @param path    a path to a file
+     * @param charset a charset of the file
+     * @return a future of the file content, that completes exceptionally with {@link FileReaderException} if the file
+     * cannot be read
+     */
+    public static CompletableFuture<String> readWholeFileAsync(Path path, Charset charset) {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        byte[] transferBuffer = new byte[ASYNC_CHUNK_SIZE];
+        return readFileAsync(path, chunk -> {
+            int length = chunk.remaining();
+            chunk.get(transferBuffer, 0, length);
+            content.write(transferBuffer, 0, length);
+        }).thenApply(size -> content.toString(charset));
+    }
+
+    /**
+     * Reads a file asynchronously and passes its content to a consumer chunk by chunk, in file order and one chunk
+     * at a time. Chunks are read into pooled direct buffers, so many concurrent reads do not allocate new buffers.
+     * A chunk buffer is returned to the pool right after the consumer returns, so it must not be used afterwards.
+     *
+     * @param path          a path to a file
+     * @param chunkConsumer a consumer of read-only buffers with file chunks
+     * @return a future of the number of read bytes, that completes exceptionally with {@link FileReaderException} if
+     * the file cannot be read, or with an exception thrown by the consumer
+     */
+    public static CompletableFuture<Long> readFileAsync(Path path, Consumer<ByteBuffer> chunkConsumer) {
+        Objects.requireNonNull(chunkConsumer);
+        return AsyncChunkReader.read(path, BUFFER_POOL, chunkConsumer);
+    }
+
+    private static Stream<String> lines(Path path, FileChannel channel, Charset charset, long start, long end) {
+        MappedLines mappedLines = new MappedLines(path, channel, charset, start, end, MappedLines.DEFAULT_WINDOW_SIZE);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(mappedLines,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private static long sizeOf(Path path) {
+        try {
+            return Files.size(path);
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot read file " + path, e);
+        }
+    }
+
+    private static long sizeOf(Path path, FileChannel channel) {
+        try {
+            return channel.size();
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot read file " + path, e);
+        }
+    }
+
+    private static FileChannel openChannel(Path path) {
+        try {
+            return FileChannel.open(path);
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot open file " + path, e);
+        }
+    }
+
+    private static void closeChannel(Path path, FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot close file " + path, e);
+        }
     }
 }
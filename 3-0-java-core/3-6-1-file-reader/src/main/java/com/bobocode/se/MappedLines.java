@@ -0,0 +1,130 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link MappedLines} is an iterator of lines in a byte range of a file, that maps the range into memory window by
+ * window. A line is copied from the mapped window into a reused byte array, and then decoded into a {@link String}. A
+ * line that crosses a window boundary is collected from both windows.
+ * <p>
+ * The range must start at the beginning of a line. The channel is not closed by the iterator, so several iterators
+ * can read different ranges of the same channel concurrently.
+ */
+class MappedLines implements Iterator<String> {
+    static final long DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+    private final Charset charset;
+    private final long windowSize;
+    private final long end;
+    private long nextWindowStart;
+    private MappedByteBuffer window;
+    private byte[] lineBytes = new byte[256];
+    private int lineLength;
+    private String nextLine;
+
+    /**
+     * Creates an iterator of lines in a byte range of a file
+     *
+     * @param path       a path to the file, used in error messages
+     * @param channel    an opened channel of the file
+     * @param charset    a charset of the file, see {@link MappedLines#checkCharset(Charset)}
+     * @param start      the first byte of the range, which is the beginning of a line
+     * @param end        the end of the range (exclusive)
+     * @param windowSize a maximum size of a mapped window
+     */
+    MappedLines(Path path, FileChannel channel, Charset charset, long start, long end, long windowSize) {
+        this.path = path;
+        this.channel = channel;
+        this.charset = charset;
+        this.windowSize = windowSize;
+        this.nextWindowStart = start;
+        this.end = end;
+    }
+
+    /**
+     * Checks that a charset encodes line terminators as single bytes, so lines can be split without decoding
+     *
+     * @param charset a charset to check
+     * @throws IllegalArgumentException if the charset is not supported
+     */
+    static void checkCharset(Charset charset) {
+        if (!Arrays.equals("\r\n".getBytes(charset), new byte[]{'\r', '\n'})) {
+            throw new IllegalArgumentException("Charset " + charset + " does not encode line terminators as single bytes");
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (nextLine == null) {
+            nextLine = readLine();
+        }
+        return nextLine != null;
+    }
+
+    @Override
+    public String next() {
+        if (!hasNext()) throw new NoSuchElementException();
+        String line = nextLine;
+        nextLine = null;
+        return line;
+    }
+
+    /**
+     * Reads the next line, or returns {@code null} at the end of the file
+     */
+    private String readLine() {
+        while (window != null || mapNextWindow()) {
+            int start = window.position();
+            int limit = window.limit();
+            for (int i = start; i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    appendToLine(start, i);
+                    window.position(i + 1);
+                    return decodeLine();
+                }
+            }
+            appendToLine(start, limit);
+            window = null;
+        }
+        return lineLength > 0 ? decodeLine() : null;
+    }
+
+    private boolean mapNextWindow() {
+        if (nextWindowStart >= end) {
+            return false;
+        }
+        long size = Math.min(windowSize, end - nextWindowStart);
+        try {
+            window = channel.map(FileChannel.MapMode.READ_ONLY, nextWindowStart, size);
+        } catch (IOException e) {
+            throw new FileReaderException("Cannot map file " + path, e);
+        }
+        nextWindowStart += size;
+        return true;
+    }
+
+    private void appendToLine(int from, int to) {
+        int length = to - from;
+        if (lineLength + length > lineBytes.length) {
+            lineBytes = Arrays.copyOf(lineBytes, Math.max(lineLength + length, lineBytes.length << 1));
+        }
+        window.position(from);
+        window.get(lineBytes, lineLength, length);
+        lineLength += length;
+    }
+
+    private String decodeLine() {
+        int length = lineLength > 0 && lineBytes[lineLength - 1] == '\r' ? lineLength - 1 : lineLength;
+        lineLength = 0;
+        return new String(lineBytes, 0, length, charset);
+    }
+}
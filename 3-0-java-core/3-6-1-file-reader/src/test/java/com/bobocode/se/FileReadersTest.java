@@ -1,8 +1,34 @@
 package com.bobocode.se;
 
+import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class FileReadersTest {
 
@@ -31,4 +57,170 @@ public class FileReadersTest {
 
         assertEquals("Hello!\n" + "It's a test file.", fileContent);
     }
+
+    @Test
+    void testReadWholeFileThrowsExceptionWhenFileIsNotFound() {
+        assertThrows(FileReaderException.class, () -> FileReaders.readWholeFile("missing.txt"));
+    }
+
+    @Test
+    void testMapWholeFile() {
+        ByteBuffer fileContent = FileReaders.mapWholeFile(getPath("simple.txt"));
+
+        assertTrue(fileContent.isReadOnly());
+        assertEquals(StandardCharsets.UTF_8.encode("Hello!\n" + "It's a test file."), fileContent);
+    }
+
+    @Test
+    void testMapWholeFileAsChars() {
+        CharSequence fileContent = FileReaders.mapWholeFileAsChars(getPath("lines.txt"));
+
+        assertEquals(21, fileContent.length());
+        assertEquals('W', fileContent.charAt(6));
+        assertEquals("What's up?", fileContent.subSequence(6, 16).toString());
+        Matcher matcher = Pattern.compile("H\\w+!").matcher(fileContent);
+        assertTrue(matcher.find());
+        assertEquals("Hey!", matcher.group());
+    }
+
+    @Test
+    void testMapWholeFileAsCharsOnEmptyFile() {
+        assertEquals("", FileReaders.mapWholeFileAsChars(getPath("empty.txt")).toString());
+    }
+
+    @Test
+    void testLines() {
+        try (Stream<String> lines = FileReaders.lines(getPath("lines.txt"))) {
+            assertEquals(List.of("Hey!", "", "What's up?", "", "Hi!"), lines.collect(Collectors.toList()));
+        }
+        try (Stream<String> lines = FileReaders.lines(getPath("empty.txt"))) {
+            assertEquals(0, lines.count());
+        }
+    }
+
+    @Test
+    void testLinesCrossingMappedWindows(@TempDir Path tempDir) throws IOException {
+        List<String> expectedLines = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            expectedLines.add("línea " + "ё".repeat(i % 7) + i);
+        }
+        expectedLines.add("");
+        Path file = tempDir.resolve("lines.txt");
+        Files.writeString(file, String.join("\r\n", expectedLines) + "\n");
+
+        for (int windowSize : new int[]{1, 2, 3, 7, 64, 4096}) {
+            List<String> lines = new ArrayList<>();
+            try (FileChannel channel = FileChannel.open(file)) {
+                new MappedLines(file, channel, StandardCharsets.UTF_8, 0, channel.size(), windowSize)
+                        .forEachRemaining(lines::add);
+            }
+            assertEquals(expectedLines, lines);
+        }
+    }
+
+    @Test
+    void testLinesRejectsMultiByteLineTerminators() {
+        assertThrows(IllegalArgumentException.class, () -> FileReaders.lines(getPath("lines.txt"), StandardCharsets.UTF_16));
+    }
+
+    @Test
+    void testParallelLines() {
+        try (Stream<String> lines = FileReaders.parallelLines(getPath("lines.txt"), true)) {
+            assertEquals(List.of("Hey!", "", "What's up?", "", "Hi!"), lines.collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    void testParallelLinesSplitIntoChunks(@TempDir Path tempDir) throws IOException {
+        List<String> expectedLines = IntStream.range(0, 10_000)
+                .mapToObj(i -> i % 10 == 0 ? "" : "рядок " + i)
+                .collect(Collectors.toList());
+        Path file = tempDir.resolve("lines.txt");
+        Files.write(file, expectedLines);
+
+        for (long chunkSize : new long[]{1, 100, 4096, Long.MAX_VALUE}) {
+            try (Stream<String> lines = FileReaders.parallelLines(file, StandardCharsets.UTF_8, true, chunkSize)) {
+                assertEquals(expectedLines, lines.collect(Collectors.toList()));
+            }
+            try (Stream<String> lines = FileReaders.parallelLines(file, StandardCharsets.UTF_8, false, chunkSize)) {
+                List<String> unorderedLines = lines.collect(Collectors.toList());
+                assertEquals(expectedLines.size(), unorderedLines.size());
+                assertEquals(new HashSet<>(expectedLines), new HashSet<>(unorderedLines));
+            }
+        }
+    }
+
+    @Test
+    void testParallelLinesOnEmptyFile() {
+        try (Stream<String> lines = FileReaders.parallelLines(getPath("empty.txt"), false)) {
+            assertEquals(0, lines.count());
+        }
+    }
+
+    @Test
+    void testReadWholeFileAsync() throws Exception {
+        CompletableFuture<String> fileContent = FileReaders.readWholeFileAsync(getPath("lines.txt"));
+
+        assertEquals("Hey!\n\nWhat's up?\n\nHi!", fileContent.get(10, TimeUnit.SECONDS));
+        assertEquals("", FileReaders.readWholeFileAsync(getPath("empty.txt")).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testReadWholeFileAsyncConcurrently(@TempDir Path tempDir) throws Exception {
+        String expectedContent = IntStream.range(0, 50_000)
+                .mapToObj(i -> "рядок " + i)
+                .collect(Collectors.joining("\n"));
+        Path file = tempDir.resolve("lines.txt");
+        Files.writeString(file, expectedContent);
+
+        List<CompletableFuture<String>> fileContents = IntStream.range(0, 100)
+                .mapToObj(i -> FileReaders.readWholeFileAsync(file))
+                .collect(Collectors.toList());
+
+        CompletableFuture.allOf(fileContents.toArray(CompletableFuture[]::new)).get(1, TimeUnit.MINUTES);
+        fileContents.forEach(fileContent -> assertEquals(expectedContent, fileContent.join()));
+    }
+
+    @Test
+    void testReadFileAsyncInChunks(@TempDir Path tempDir) throws Exception {
+        byte[] expectedContent = new byte[200_000];
+        new Random(42).nextBytes(expectedContent);
+        Path file = tempDir.resolve("data.bin");
+        Files.write(file, expectedContent);
+
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        List<Integer> chunkSizes = new ArrayList<>();
+        long size = FileReaders.readFileAsync(file, chunk -> {
+            assertTrue(chunk.isReadOnly());
+            chunkSizes.add(chunk.remaining());
+            while (chunk.hasRemaining()) {
+                content.write(chunk.get());
+            }
+        }).get(10, TimeUnit.SECONDS);
+
+        assertEquals(expectedContent.length, size);
+        assertTrue(chunkSizes.size() > 1);
+        assertArrayEquals(expectedContent, content.toByteArray());
+    }
+
+    @Test
+    void testReadFileAsyncFailures(@TempDir Path tempDir) throws IOException {
+        CompletableFuture<String> missingFile = FileReaders.readWholeFileAsync(tempDir.resolve("missing.txt"));
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> missingFile.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof FileReaderException);
+
+        Path file = Files.writeString(tempDir.resolve("lines.txt"), "Hey!");
+        CompletableFuture<Long> failingConsumer = FileReaders.readFileAsync(file, chunk -> {
+            throw new IllegalStateException("Cannot consume chunk");
+        });
+        exception = assertThrows(ExecutionException.class, () -> failingConsumer.get(10, TimeUnit.SECONDS));
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+    }
+
+    @SneakyThrows
+    private Path getPath(String fileName) {
+        return Paths.get(FileReadersTest.class.getClassLoader()
+                .getResource(fileName)
+                .toURI());
+    }
 }
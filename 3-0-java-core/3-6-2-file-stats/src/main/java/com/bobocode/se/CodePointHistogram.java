@@ -0,0 +1,117 @@
+package com.bobocode.se;
+
+import java.util.Arrays;
+
+/**
+ * {@link CodePointHistogram} counts occurrences of Unicode code points without boxing. It is a two-level table: the
+ * Basic Multilingual Plane, where almost all text is, is a dense array indexed by code point, while rare supplementary
+ * code points are kept in an open addressing hash table. So its size depends only on the number of distinct
+ * supplementary code points, not on the size of the counted text.
+ */
+class CodePointHistogram {
+    private static final int BMP_SIZE = Character.MAX_VALUE + 1;
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int CODE_POINT_BITS = 21;
+    private static final long CODE_POINT_MASK = (1L << CODE_POINT_BITS) - 1;
+
+    private final long[] bmpCounts = new long[BMP_SIZE];
+    private int[] supplementaryCodePoints = new int[DEFAULT_CAPACITY];
+    private long[] supplementaryCounts = new long[DEFAULT_CAPACITY];
+    private int supplementarySize;
+
+    /**
+     * @return a dense array of counts of the Basic Multilingual Plane code points, indexed by code point
+     */
+    long[] bmpCounts() {
+        return bmpCounts;
+    }
+
+    void increment(int codePoint) {
+        if (codePoint < BMP_SIZE) {
+            bmpCounts[codePoint]++;
+            return;
+        }
+        int slot = slotOf(codePoint);
+        if (supplementaryCodePoints[slot] == 0) {
+            supplementaryCodePoints[slot] = codePoint;
+            if (++supplementarySize * 2 > supplementaryCodePoints.length) {
+                supplementaryCounts[slot]++;
+                rehash(supplementaryCodePoints.length << 1);
+                return;
+            }
+        }
+        supplementaryCounts[slot]++;
+    }
+
+    long get(int codePoint) {
+        if (codePoint < BMP_SIZE) {
+            return bmpCounts[codePoint];
+        }
+        int slot = slotOf(codePoint);
+        return supplementaryCodePoints[slot] == codePoint ? supplementaryCounts[slot] : 0;
+    }
+
+    /**
+     * Returns the slot of a supplementary code point, or an empty slot where it can be inserted. Supplementary code
+     * points are never zero, so zero marks an empty slot.
+     */
+    private int slotOf(int codePoint) {
+        int mask = supplementaryCodePoints.length - 1;
+        int slot = (codePoint * 0x9E3779B9) >>> 16 & mask;
+        while (supplementaryCodePoints[slot] != 0 && supplementaryCodePoints[slot] != codePoint) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldCodePoints = supplementaryCodePoints;
+        long[] oldCounts = supplementaryCounts;
+        supplementaryCodePoints = new int[capacity];
+        supplementaryCounts = new long[capacity];
+        for (int i = 0; i < oldCodePoints.length; i++) {
+            if (oldCodePoints[i] != 0) {
+                int slot = slotOf(oldCodePoints[i]);
+                supplementaryCodePoints[slot] = oldCodePoints[i];
+                supplementaryCounts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Returns up to {@code k} code points with the largest counts, from the most popular one. Code points with equal
+     * counts are ordered by value. Each code point and its count are packed into one {@code long} sort key, so no
+     * objects are created per code point.
+     *
+     * @param k a maximum number of code points
+     * @return the most popular code points
+     */
+    int[] mostPopular(int k) {
+        long[] keys = new long[BMP_SIZE + supplementarySize];
+        int keyCount = 0;
+        for (int codePoint = 0; codePoint < BMP_SIZE; codePoint++) {
+            if (bmpCounts[codePoint] > 0) {
+                keys[keyCount++] = sortKey(codePoint, bmpCounts[codePoint]);
+            }
+        }
+        for (int i = 0; i < supplementaryCodePoints.length; i++) {
+            if (supplementaryCodePoints[i] != 0 && supplementaryCounts[i] > 0) {
+                keys[keyCount++] = sortKey(supplementaryCodePoints[i], supplementaryCounts[i]);
+            }
+        }
+        Arrays.sort(keys, 0, keyCount);
+        int[] mostPopular = new int[Math.min(k, keyCount)];
+        for (int i = 0; i < mostPopular.length; i++) {
+            mostPopular[i] = (int) (CODE_POINT_MASK - (keys[keyCount - 1 - i] & CODE_POINT_MASK));
+        }
+        return mostPopular;
+    }
+
+    /**
+     * Packs a count into high bits and an inverted code point into low bits, so larger keys mean larger counts and,
+     * for equal counts, smaller code points. Counts must be less than 2^42.
+     */
+    private static long sortKey(int codePoint, long count) {
+        return count << CODE_POINT_BITS | (CODE_POINT_MASK - codePoint);
+    }
+}
@@ -0,0 +1,115 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * {@link CodePointStats} provides an API that allow to get Unicode code point statistic based on text file. Unlike
+ * {@link FileStats}, it counts a character outside of the Basic Multilingual Plane (e.g. an emoji) as one code point,
+ * instead of two surrogate chars. All whitespace characters are ignored.
+ * <p>
+ * Code points are counted into a {@link CodePointHistogram}, so the memory used does not depend on the file size.
+ * UTF-8 files are decoded by {@link Utf8CharCounter}, files in other charsets by a {@link java.nio.charset.CharsetDecoder}.
+ */
+public class CodePointStats {
+    private final CodePointHistogram histogram;
+    private final int[] mostPopularCodePoints;
+
+    private CodePointStats(CodePointHistogram histogram) {
+        long[] bmpCounts = histogram.bmpCounts();
+        for (int c = 0; c < bmpCounts.length; c++) {
+            if (Character.isWhitespace(c)) {
+                bmpCounts[c] = 0;
+            }
+        }
+        this.histogram = histogram;
+        this.mostPopularCodePoints = histogram.mostPopular(1);
+    }
+
+    /**
+     * Creates a new immutable {@link CodePointStats} objects using data from a UTF-8 text file
+     *
+     * @param path a path to a text file
+     * @return new CodePointStats object created from text file
+     */
+    public static CodePointStats from(Path path) {
+        return from(path, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Creates a new immutable {@link CodePointStats} objects using data from a text file in a provided charset.
+     * Malformed input is counted as replacement characters {@code U+FFFD}.
+     *
+     * @param path    a path to a text file
+     * @param charset a charset of the file
+     * @return new CodePointStats object created from text file
+     */
+    public static CodePointStats from(Path path, Charset charset) {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(charset);
+        CodePointHistogram histogram = new CodePointHistogram();
+        try (FileChannel channel = FileChannel.open(path)) {
+            if (charset.equals(StandardCharsets.UTF_8)) {
+                Utf8CharCounter.countCodePoints(channel, Utf8CharCounter.DEFAULT_WINDOW_SIZE, histogram);
+            } else {
+                DecodingCodePointCounter.count(channel, charset, Utf8CharCounter.DEFAULT_WINDOW_SIZE, histogram);
+            }
+        } catch (IOException e) {
+            throw new FileStatsException("Cannot read file " + path, e);
+        }
+        return new CodePointStats(histogram);
+    }
+
+    /**
+     * Returns a number of occurrences of the particular code point.
+     *
+     * @param codePoint a Unicode code point
+     * @return a number that shows how many times this code point appeared in a text file
+     */
+    public long getCodePointCount(int codePoint) {
+        checkCodePoint(codePoint);
+        return histogram.get(codePoint);
+    }
+
+    /**
+     * Returns {@code true} if this code point has appeared in the text, and {@code false} otherwise
+     *
+     * @param codePoint a Unicode code point
+     * @return {@code true} if this code point has appeared in the text, and {@code false} otherwise
+     */
+    public boolean containsCodePoint(int codePoint) {
+        return getCodePointCount(codePoint) > 0;
+    }
+
+    /**
+     * Returns a code point that appeared most often in the text.
+     *
+     * @return the most frequently appeared code point
+     * @throws FileStatsException if the text has no characters except whitespaces
+     */
+    public int getMostPopularCodePoint() {
+        if (mostPopularCodePoints.length == 0) throw new FileStatsException("File has no characters except whitespaces");
+        return mostPopularCodePoints[0];
+    }
+
+    /**
+     * Returns up to {@code k} code points that appeared most often in the text, from the most popular one. Code points
+     * that appeared the same number of times are ordered by value.
+     *
+     * @param k a maximum number of code points to return
+     * @return the most frequently appeared code points
+     * @throws IllegalArgumentException if k is negative
+     */
+    public int[] getMostPopularCodePoints(int k) {
+        if (k < 0) throw new IllegalArgumentException("Number of code points cannot be negative: " + k);
+        return histogram.mostPopular(k);
+    }
+
+    private static void checkCodePoint(int codePoint) {
+        if (!Character.isValidCodePoint(codePoint)) throw new IllegalArgumentException("Invalid code point: " + codePoint);
+    }
+}
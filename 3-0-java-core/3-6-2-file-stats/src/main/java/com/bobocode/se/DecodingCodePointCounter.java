@@ -0,0 +1,91 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * {@link DecodingCodePointCounter} counts code points of a file in any charset. The file is mapped into memory in
+ * windows that are decoded by a {@link CharsetDecoder} into a small reused {@link CharBuffer}. Malformed and unmappable
+ * input is counted as replacement chars. Bytes of a char that crosses the end of a window are decoded with the next
+ * window, and a surrogate pair that crosses the end of the char buffer is joined with the next buffer.
+ */
+class DecodingCodePointCounter {
+    private static final int CHAR_BUFFER_SIZE = 8 * 1024;
+
+    private final CharsetDecoder decoder;
+    private final CharBuffer chars = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+    private final CodePointHistogram histogram;
+    private char pendingHighSurrogate;
+
+    private DecodingCodePointCounter(Charset charset, CodePointHistogram histogram) {
+        this.decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        this.histogram = histogram;
+    }
+
+    /**
+     * Adds code points of a whole file to a histogram
+     *
+     * @param channel    an opened file channel
+     * @param charset    a charset of the file
+     * @param windowSize a maximum size of a mapped window
+     * @param histogram  a histogram to add counts to
+     */
+    static void count(FileChannel channel, Charset charset, long windowSize, CodePointHistogram histogram)
+            throws IOException {
+        new DecodingCodePointCounter(charset, histogram).count(channel, windowSize);
+    }
+
+    private void count(FileChannel channel, long windowSize) throws IOException {
+        long fileSize = channel.size();
+        long position = 0;
+        boolean last;
+        do {
+            long size = Math.min(windowSize, fileSize - position);
+            last = position + size == fileSize;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            CoderResult result;
+            do {
+                result = decoder.decode(window, chars, last);
+                countChars();
+            } while (result.isOverflow());
+            position += window.position();
+        } while (!last);
+        while (decoder.flush(chars).isOverflow()) {
+            countChars();
+        }
+        countChars();
+        if (pendingHighSurrogate != 0) {
+            histogram.increment(pendingHighSurrogate);
+        }
+    }
+
+    private void countChars() {
+        chars.flip();
+        while (chars.hasRemaining()) {
+            char c = chars.get();
+            if (pendingHighSurrogate != 0) {
+                if (Character.isLowSurrogate(c)) {
+                    histogram.increment(Character.toCodePoint(pendingHighSurrogate, c));
+                    pendingHighSurrogate = 0;
+                    continue;
+                }
+                histogram.increment(pendingHighSurrogate);
+                pendingHighSurrogate = 0;
+            }
+            if (Character.isHighSurrogate(c)) {
+                pendingHighSurrogate = c;
+            } else {
+                histogram.increment(c);
+            }
+        }
+        chars.clear();
+    }
+}
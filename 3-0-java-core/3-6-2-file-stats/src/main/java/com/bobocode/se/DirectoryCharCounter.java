@@ -0,0 +1,130 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * {@link DirectoryCharCounter} counts chars of all UTF-8 files of a directory tree, that match a glob pattern. The
+ * tree is walked by the calling thread, and files are counted by a fixed number of workers. The queue of files waiting
+ * for a worker is bounded, so when workers fall behind, the calling thread counts a file itself instead of walking
+ * further.
+ * <p>
+ * A file is counted into a histogram that no other thread uses at the same time. Histograms are taken from a free list
+ * and returned to it after a file, so there are at most as many of them as threads counting at once (the workers and
+ * the calling thread). They are merged when all files are counted. A progress listener is notified after every counted
+ * file.
+ */
+class DirectoryCharCounter {
+    private static final int QUEUED_FILES_PER_WORKER = 4;
+
+    private final Path directory;
+    private final PathMatcher matcher;
+    private final Consumer<DirectoryStatsProgress> progressListener;
+    private final Queue<long[]> histograms = new ConcurrentLinkedQueue<>();
+    private final Queue<long[]> freeHistograms = new ConcurrentLinkedQueue<>();
+    private final AtomicLong processedFileCount = new AtomicLong();
+    private final AtomicLong processedByteCount = new AtomicLong();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private long startNanos;
+
+    private DirectoryCharCounter(Path directory, String glob, Consumer<DirectoryStatsProgress> progressListener) {
+        this.directory = directory;
+        this.matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        this.progressListener = progressListener;
+    }
+
+    /**
+     * Counts chars of matching files into a new histogram
+     *
+     * @param directory        a root of a directory tree
+     * @param glob             a glob pattern that is matched against file paths relative to the directory
+     * @param parallelism      a number of worker threads
+     * @param progressListener a listener, that is notified from worker threads
+     * @return a histogram, where the element {@code c} is the number of occurrences of char {@code c}
+     * @throws FileStatsException if the directory or any matching file cannot be read
+     */
+    static long[] count(Path directory, String glob, int parallelism, Consumer<DirectoryStatsProgress> progressListener) {
+        return new DirectoryCharCounter(directory, glob, progressListener).count(parallelism);
+    }
+
+    private long[] count(int parallelism) {
+        startNanos = System.nanoTime();
+        ExecutorService workers = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(parallelism * QUEUED_FILES_PER_WORKER), new ThreadPoolExecutor.CallerRunsPolicy());
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.filter(file -> matcher.matches(directory.relativize(file)) && Files.isRegularFile(file))
+                    .takeWhile(file -> failure.get() == null)
+                    .forEach(file -> workers.execute(() -> countFile(file)));
+        } catch (IOException | UncheckedIOException e) {
+            failure.compareAndSet(null, new FileStatsException("Cannot walk directory " + directory, e));
+        } finally {
+            workers.shutdown();
+            awaitTermination(workers);
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        progressListener.accept(progress());
+        return Utf8CharCounter.sum(histograms);
+    }
+
+    private void countFile(Path file) {
+        if (failure.get() != null) {
+            return;
+        }
+        long[] histogram = acquireHistogram();
+        try (FileChannel channel = FileChannel.open(file)) {
+            long size = channel.size();
+            Utf8CharCounter.count(channel, 0, size, Utf8CharCounter.DEFAULT_WINDOW_SIZE, histogram);
+            processedFileCount.incrementAndGet();
+            processedByteCount.addAndGet(size);
+            progressListener.accept(progress());
+        } catch (IOException e) {
+            failure.compareAndSet(null, new FileStatsException("Cannot read file " + file, e));
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            freeHistograms.add(histogram);
+        }
+    }
+
+    private long[] acquireHistogram() {
+        long[] histogram = freeHistograms.poll();
+        if (histogram == null) {
+            histogram = new long[Utf8CharCounter.HISTOGRAM_SIZE];
+            histograms.add(histogram);
+        }
+        return histogram;
+    }
+
+    private DirectoryStatsProgress progress() {
+        return new DirectoryStatsProgress(processedFileCount.get(), processedByteCount.get(),
+                Duration.ofNanos(System.nanoTime() - startNanos));
+    }
+
+    private void awaitTermination(ExecutorService workers) {
+        try {
+            workers.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            workers.shutdownNow();
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, new FileStatsException("Counting characters was interrupted", e));
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.bobocode.se;
+
+import lombok.Value;
+
+import java.time.Duration;
+
+/**
+ * {@link DirectoryStatsProgress} is an immutable snapshot of the progress of {@link FileStats#fromDirectory}
+ */
+@Value
+public class DirectoryStatsProgress {
+    long processedFileCount;
+    long processedByteCount;
+    Duration elapsedTime;
+
+    /**
+     * @return a number of processed files per second
+     */
+    public double getFilesPerSecond() {
+        return perSecond(processedFileCount);
+    }
+
+    /**
+     * @return a number of processed megabytes per second
+     */
+    public double getMegabytesPerSecond() {
+        return perSecond(processedByteCount) / (1024 * 1024);
+    }
+
+    private double perSecond(double value) {
+        long elapsedNanos = elapsedTime.toNanos();
+        return elapsedNanos == 0 ? 0 : value * 1_000_000_000 / elapsedNanos;
+    }
+}
@@ -1,12 +1,53 @@
 package com.bobocode.se;
 
-import com.bobocode.util.ExerciseNotCompletedException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 /**
  * {@link FileStats} provides an API that allow to get character statistic based on text file. All whitespace characters
  * are ignored.
+ * <p>
+ * Statistics are collected in a single pass over a memory-mapped UTF-8 file into a primitive histogram indexed by char
+ * (see {@link Utf8CharCounter}), so all queries are constant-time array lookups. Large files can be counted in
+ * parallel segments, see {@link FileStats#fromParallel(Path)}, and growing files can be counted incrementally, see
+ * {@link FileStats#fromIncremental(Path, Path)}. Statistics of a whole directory tree are collected by
+ * {@link FileStats#fromDirectory(Path, String)}.
  */
 public class FileStats {
+    private final long[] charCounts;
+    private final int mostPopularCharacter;
+
+    private FileStats(long[] charCounts) {
+        for (int c = 0; c < charCounts.length; c++) {
+            if (Character.isWhitespace(c)) {
+                charCounts[c] = 0;
+            }
+        }
+        this.charCounts = charCounts;
+        this.mostPopularCharacter = findMostPopularCharacter(charCounts);
+    }
+
+    /**
+     * Returns the most popular char of a histogram, the smallest one if there are several of them, or -1 if the
+     * histogram is empty
+     */
+    private static int findMostPopularCharacter(long[] charCounts) {
+        int mostPopularCharacter = -1;
+        long maxCount = 0;
+        for (int c = 0; c < charCounts.length; c++) {
+            if (charCounts[c] > maxCount) {
+                maxCount = charCounts[c];
+                mostPopularCharacter = c;
+            }
+        }
+        return mostPopularCharacter;
+    }
+
     /**
      * Creates a new immutable {@link FileStats} objects using data from text file received as a parameter.
      *
@@ -14,7 +55,105 @@ public class FileStats {
      * @return new FileStats object created from text file
      */
     public static FileStats from(String fileName) {
-        throw new ExerciseNotCompletedException(); //todo
+        return from(createPathFromFileName(fileName));
+    }
+
+    /**
+     * Creates a new immutable {@link FileStats} objects using data from a UTF-8 text file of any size
+     *
+     * @param path a path to a text file
+     * @return new FileStats object created from text file
+     */
+    public static FileStats from(Path path) {
+        Objects.requireNonNull(path);
+        return new FileStats(Utf8CharCounter.count(path));
+    }
+
+    /**
+     * Creates a new immutable {@link FileStats} objects using data from a UTF-8 text file, that is counted in parallel
+     * segments on the common {@link ForkJoinPool}. It is faster than {@link FileStats#from(Path)} for large files.
+     *
+     * @param path a path to a text file
+     * @return new FileStats object created from text file
+     */
+    public static FileStats fromParallel(Path path) {
+        return fromParallel(path, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Creates a new immutable {@link FileStats} objects using data from a UTF-8 text file, that is counted in parallel
+     * segments on a provided {@link ForkJoinPool}
+     *
+     * @param path a path to a text file
+     * @param pool a pool that counts file segments
+     * @return new FileStats object created from text file
+     */
+    public static FileStats fromParallel(Path path, ForkJoinPool pool) {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(pool);
+        return new FileStats(ParallelCharCounter.count(path, ParallelCharCounter.DEFAULT_SEGMENT_SIZE, pool));
+    }
+
+    /**
+     * Creates a new immutable {@link FileStats} objects using data from a growing UTF-8 text file, e.g. a log. The
+     * character counts are saved to a state file, so the next call counts only the content appended since then, see
+     * {@link IncrementalCharCounter}. Unlike {@link FileStats#from(Path)}, an incomplete UTF-8 sequence at the end of
+     * the file is not counted until the rest of it is appended.
+     *
+     * @param path      a path to a text file
+     * @param stateFile a path to a file that keeps the character counts between calls
+     * @return new FileStats object created from text file
+     */
+    public static FileStats fromIncremental(Path path, Path stateFile) {
+        Objects.requireNonNull(path);
+        Objects.requireNonNull(stateFile);
+        return new FileStats(IncrementalCharCounter.count(path, stateFile));
+    }
+
+    /**
+     * Creates a new immutable {@link FileStats} objects using data from all UTF-8 text files of a directory tree,
+     * that match a glob pattern. Files are counted by as many threads as there are available processors.
+     *
+     * @param directory a root of a directory tree
+     * @param glob      a glob pattern matched against file paths relative to the directory, e.g. {@code **.txt}
+     * @return new FileStats object created from text files
+     */
+    public static FileStats fromDirectory(Path directory, String glob) {
+        return fromDirectory(directory, glob, Runtime.getRuntime().availableProcessors(), progress -> {
+        });
+    }
+
+    /**
+     * Creates a new immutable {@link FileStats} objects using data from all UTF-8 text files of a directory tree,
+     * that match a glob pattern. Files are counted concurrently by a provided number of threads, see
+     * {@link DirectoryCharCounter}.
+     *
+     * @param directory        a root of a directory tree
+     * @param glob             a glob pattern matched against file paths relative to the directory, e.g. {@code **.txt}
+     * @param parallelism      a number of threads that count files
+     * @param progressListener a listener that is notified after every counted file and when all files are counted,
+     *                         it is called from different threads
+     * @return new FileStats object created from text files
+     * @throws IllegalArgumentException if parallelism is not positive
+     */
+    public static FileStats fromDirectory(Path directory, String glob, int parallelism,
+                                          Consumer<DirectoryStatsProgress> progressListener) {
+        Objects.requireNonNull(directory);
+        Objects.requireNonNull(glob);
+        Objects.requireNonNull(progressListener);
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        return new FileStats(DirectoryCharCounter.count(directory, glob, parallelism, progressListener));
+    }
+
+    private static Path createPathFromFileName(String fileName) {
+        Objects.requireNonNull(fileName);
+        URL fileUrl = FileStats.class.getClassLoader().getResource(fileName);
+        if (fileUrl == null) throw new FileStatsException("File " + fileName + " is not found in the classpath");
+        try {
+            return Paths.get(fileUrl.toURI());
+        } catch (URISyntaxException e) {
+            throw new FileStatsException("Invalid file URL", e);
+        }
     }
 
     /**
@@ -22,18 +161,33 @@ public class FileStats {
      *
      * @param character a specific character
      * @return a number that shows how many times this character appeared in a text file
+     * @throws ArithmeticException if the number does not fit into {@code int}, see
+     *                             {@link FileStats#getLongCharCount(char)}
      */
     public int getCharCount(char character) {
-        throw new ExerciseNotCompletedException(); //todo
+        return Math.toIntExact(charCounts[character]);
+    }
+
+    /**
+     * Returns a number of occurrences of the particular character, that can be larger than {@link Integer#MAX_VALUE}
+     * for huge files.
+     *
+     * @param character a specific character
+     * @return a number that shows how many times this character appeared in a text file
+     */
+    public long getLongCharCount(char character) {
+        return charCounts[character];
     }
 
     /**
      * Returns a character that appeared most often in the text.
      *
      * @return the most frequently appeared character
+     * @throws FileStatsException if the text has no characters except whitespaces
      */
     public char getMostPopularCharacter() {
-        throw new ExerciseNotCompletedException(); //todo
+        if (mostPopularCharacter < 0) throw new FileStatsException("File has no characters except whitespaces");
+        return (char) mostPopularCharacter;
     }
 
     /**
@@ -43,6 +197,6 @@ public class FileStats {
      * @return {@code true} if this character has appeared in the text, and {@code false} otherwise
      */
     public boolean containsCharacter(char character) {
-        throw new ExerciseNotCompletedException(); //todo
+        return charCounts[character] > 0;
     }
 }
@@ -0,0 +1,155 @@
+package com.bobocode.se;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.zip.CRC32;
+
+/**
+ * {@link IncrementalCharCounter} counts chars of a growing UTF-8 file, e.g. a log, without rescanning it. The
+ * histogram is saved to a state file together with the number of counted bytes and the identity of the file: its
+ * last modified time and a checksum of the bytes right before the counted offset. Next time only the appended tail is
+ * counted.
+ * <p>
+ * The whole file is counted again if it does not look like the same file with appended content, i.e. it got shorter,
+ * it was modified without growing, or the checksum does not match. An incomplete UTF-8 sequence at the end of the file
+ * is left for the next call, since it may be still being written. That is the only difference from counting the whole
+ * file at once, which counts such a sequence as a replacement char {@code U+FFFD}: a file that never gets the rest of
+ * the sequence is counted without it.
+ */
+class IncrementalCharCounter {
+    private static final int STATE_FORMAT = 0x46535431; // "FST1"
+    private static final int CHECKSUM_LENGTH = 64;
+
+    private IncrementalCharCounter() {
+    }
+
+    /**
+     * Counts chars of a file into a new histogram, using and updating a state file
+     *
+     * @param path      a path to a file
+     * @param stateFile a path to a state file, it is created if it does not exist
+     * @return a histogram, where the element {@code c} is the number of occurrences of char {@code c}
+     * @throws FileStatsException if the file cannot be read or the state file cannot be written
+     */
+    static long[] count(Path path, Path stateFile) {
+        try (FileChannel channel = FileChannel.open(path)) {
+            long size = channel.size();
+            long lastModified = Files.readAttributes(path, BasicFileAttributes.class).lastModifiedTime().toMillis();
+            State state = readState(stateFile);
+            if (state == null || !isAppendedTo(state, channel, size, lastModified)) {
+                state = new State(0, 0, 0, new long[Utf8CharCounter.HISTOGRAM_SIZE]);
+            } else if (state.offset == size && state.lastModified == lastModified) {
+                return state.histogram;
+            }
+            long offset = Utf8CharCounter.count(channel, state.offset, size, Utf8CharCounter.DEFAULT_WINDOW_SIZE,
+                    state.histogram, false);
+            writeState(stateFile, new State(offset, lastModified, checksum(channel, offset), state.histogram));
+            return state.histogram;
+        } catch (IOException e) {
+            throw new FileStatsException("Cannot count characters of file " + path, e);
+        }
+    }
+
+    private static boolean isAppendedTo(State state, FileChannel channel, long size, long lastModified) throws IOException {
+        if (state.offset > size || (state.offset == size && state.lastModified != lastModified)) {
+            return false;
+        }
+        return checksum(channel, state.offset) == state.checksum;
+    }
+
+    /**
+     * Computes a checksum of up to {@value CHECKSUM_LENGTH} bytes right before a provided offset
+     */
+    private static long checksum(FileChannel channel, long offset) throws IOException {
+        int length = (int) Math.min(CHECKSUM_LENGTH, offset);
+        ByteBuffer bytes = ByteBuffer.allocate(length);
+        while (bytes.hasRemaining()) {
+            if (channel.read(bytes, offset - length + bytes.position()) < 0) {
+                break;
+            }
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.flip());
+        return crc.getValue();
+    }
+
+    /**
+     * Reads a state file, or returns {@code null} if it does not exist, has an unknown format or is damaged
+     */
+    private static State readState(Path stateFile) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(stateFile)))) {
+            if (in.readInt() != STATE_FORMAT) {
+                return null;
+            }
+            long offset = in.readLong();
+            long lastModified = in.readLong();
+            long checksum = in.readLong();
+            long[] histogram = new long[Utf8CharCounter.HISTOGRAM_SIZE];
+            int entryCount = in.readInt();
+            for (int i = 0; i < entryCount; i++) {
+                histogram[in.readChar()] = in.readLong();
+            }
+            return new State(offset, lastModified, checksum, histogram);
+        } catch (IOException e) {
+            return null; // the state file is created or replaced after counting
+        }
+    }
+
+    /**
+     * Writes a state into a new temporary file next to the state file and then moves it over the state file, so a crash
+     * while writing never leaves a damaged state file, and concurrent calls never write into the same temporary file.
+     * Only non-zero histogram entries are stored.
+     */
+    private static void writeState(Path stateFile, State state) throws IOException {
+        Path tempFile = Files.createTempFile(stateFile.toAbsolutePath().getParent(),
+                stateFile.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(STATE_FORMAT);
+                out.writeLong(state.offset);
+                out.writeLong(state.lastModified);
+                out.writeLong(state.checksum);
+                long[] histogram = state.histogram;
+                int entryCount = 0;
+                for (long count : histogram) {
+                    if (count > 0) {
+                        entryCount++;
+                    }
+                }
+                out.writeInt(entryCount);
+                for (int c = 0; c < histogram.length; c++) {
+                    if (histogram[c] > 0) {
+                        out.writeChar(c);
+                        out.writeLong(histogram[c]);
+                    }
+                }
+            }
+            Files.move(tempFile, stateFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile); // only if writing or moving failed
+        }
+    }
+
+    private static class State {
+        private final long offset;
+        private final long lastModified;
+        private final long checksum;
+        private final long[] histogram;
+
+        State(long offset, long lastModified, long checksum, long[] histogram) {
+            this.offset = offset;
+            this.lastModified = lastModified;
+            this.checksum = checksum;
+            this.histogram = histogram;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * {@link ParallelCharCounter} counts chars of a UTF-8 file on a {@link ForkJoinPool}. The file is recursively split
+ * in halves at UTF-8 sequence boundaries until segments are small enough, and each segment is counted by
+ * {@link Utf8CharCounter}.
+ * <p>
+ * Every segment is counted into its own histogram, so there is no contention between workers, and a task adds the
+ * histogram of its second half to the histogram of its first half when both are counted. No histogram outlives the
+ * call.
+ */
+class ParallelCharCounter {
+    static final long DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private ParallelCharCounter() {
+    }
+
+    /**
+     * Counts chars of a file into a new histogram
+     *
+     * @param path        a path to a file
+     * @param segmentSize a maximum size of a segment counted by one task
+     * @param pool        a pool that runs counting tasks
+     * @return a histogram, where the element {@code c} is the number of occurrences of char {@code c}
+     * @throws FileStatsException if the file cannot be read
+     */
+    static long[] count(Path path, long segmentSize, ForkJoinPool pool) {
+        try (FileChannel channel = FileChannel.open(path)) {
+            return pool.invoke(new SegmentTask(path, channel, 0, channel.size(), segmentSize));
+        } catch (IOException e) {
+            throw new FileStatsException("Cannot read file " + path, e);
+        }
+    }
+
+    private static class SegmentTask extends RecursiveTask<long[]> {
+        private final Path path;
+        private final FileChannel channel;
+        private final long start;
+        private final long end;
+        private final long segmentSize;
+
+        SegmentTask(Path path, FileChannel channel, long start, long end, long segmentSize) {
+            this.path = path;
+            this.channel = channel;
+            this.start = start;
+            this.end = end;
+            this.segmentSize = segmentSize;
+        }
+
+        @Override
+        protected long[] compute() {
+            try {
+                long middle = end - start > segmentSize ? sequenceStart(start + (end - start) / 2) : end;
+                if (middle == end) {
+                    long[] histogram = new long[Utf8CharCounter.HISTOGRAM_SIZE];
+                    Utf8CharCounter.count(channel, start, end, Utf8CharCounter.DEFAULT_WINDOW_SIZE, histogram);
+                    return histogram;
+                }
+                SegmentTask firstHalf = new SegmentTask(path, channel, start, middle, segmentSize);
+                firstHalf.fork();
+                long[] secondHalfHistogram = new SegmentTask(path, channel, middle, end, segmentSize).compute();
+                long[] histogram = firstHalf.join();
+                Utf8CharCounter.addTo(histogram, secondHalfHistogram);
+                return histogram;
+            } catch (IOException e) {
+                throw new FileStatsException("Cannot read file " + path, e);
+            }
+        }
+
+        /**
+         * Moves a position forward past UTF-8 continuation bytes, so it points to the beginning of a sequence
+         */
+        private long sequenceStart(long position) throws IOException {
+            ByteBuffer bytes = ByteBuffer.allocate(3);
+            channel.read(bytes, position);
+            int skipped = 0;
+            while (skipped < bytes.position() && (bytes.get(skipped) & 0xC0) == 0x80) {
+                skipped++;
+            }
+            return Math.min(position + skipped, end);
+        }
+    }
+}
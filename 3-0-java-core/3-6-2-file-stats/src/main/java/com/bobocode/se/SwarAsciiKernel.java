@@ -0,0 +1,67 @@
+package com.bobocode.se;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link SwarAsciiKernel} counts runs of ASCII bytes eight at a time, using SWAR (SIMD within a register): a run is
+ * read as {@code long} words, and a single mask test tells whether all eight bytes of a word are ASCII, instead of a
+ * branch per byte. Bytes of an ASCII word are then counted without further checks.
+ * <p>
+ * Counts are accumulated in four interleaved stripes of {@code int} counters, so the same char repeated in adjacent
+ * bytes (e.g. spaces or {@code "ee"}) increments different memory locations and consecutive increments do not wait
+ * for each other. Stripes are added to a histogram by {@link SwarAsciiKernel#flushTo(long[])}. A kernel must be flushed
+ * before it counts {@value Integer#MAX_VALUE} bytes, so its {@code int} counters cannot overflow.
+ */
+class SwarAsciiKernel {
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final int ASCII_SIZE = 128;
+    private static final int ASCII_MASK = ASCII_SIZE - 1;
+    private static final int STRIPE_1 = ASCII_SIZE;
+    private static final int STRIPE_2 = 2 * ASCII_SIZE;
+    private static final int STRIPE_3 = 3 * ASCII_SIZE;
+
+    private final int[] stripes = new int[4 * ASCII_SIZE];
+
+    /**
+     * Counts ASCII bytes of a buffer starting from a provided index, and stops at the first non-ASCII byte
+     *
+     * @param buffer a buffer to count
+     * @param from   the first index to count
+     * @param limit  the end of counted bytes (exclusive)
+     * @return the index of the first non-ASCII byte, or the limit
+     */
+    int countAsciiRun(ByteBuffer buffer, int from, int limit) {
+        int[] counts = stripes;
+        int i = from;
+        for (int lastWord = limit - Long.BYTES; i <= lastWord; i += Long.BYTES) {
+            long word = buffer.getLong(i);
+            if ((word & HIGH_BITS) != 0) {
+                break;
+            }
+            counts[(int) word & ASCII_MASK]++;
+            counts[STRIPE_1 + ((int) (word >>> 8) & ASCII_MASK)]++;
+            counts[STRIPE_2 + ((int) (word >>> 16) & ASCII_MASK)]++;
+            counts[STRIPE_3 + ((int) (word >>> 24) & ASCII_MASK)]++;
+            counts[(int) (word >>> 32) & ASCII_MASK]++;
+            counts[STRIPE_1 + ((int) (word >>> 40) & ASCII_MASK)]++;
+            counts[STRIPE_2 + ((int) (word >>> 48) & ASCII_MASK)]++;
+            counts[STRIPE_3 + ((int) (word >>> 56) & ASCII_MASK)]++;
+        }
+        for (byte b; i < limit && (b = buffer.get(i)) >= 0; i++) {
+            counts[b]++;
+        }
+        return i;
+    }
+
+    /**
+     * Adds counted ASCII bytes to a histogram and resets the kernel
+     *
+     * @param histogram a histogram indexed by char
+     */
+    void flushTo(long[] histogram) {
+        for (int c = 0; c < ASCII_SIZE; c++) {
+            histogram[c] += stripes[c] + stripes[STRIPE_1 + c] + stripes[STRIPE_2 + c] + stripes[STRIPE_3 + c];
+            stripes[c] = stripes[STRIPE_1 + c] = stripes[STRIPE_2 + c] = stripes[STRIPE_3 + c] = 0;
+        }
+    }
+}
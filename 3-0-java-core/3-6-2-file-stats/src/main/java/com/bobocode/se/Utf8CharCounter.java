@@ -0,0 +1,237 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Collection;
+
+/**
+ * {@link Utf8CharCounter} counts chars of a UTF-8 file into a histogram indexed by char. The file is mapped into
+ * memory in fixed-size windows and decoded byte by byte, so no {@link String}s, boxed characters or other objects are
+ * created per char or per line.
+ * <p>
+ * ASCII bytes are counted directly. Multibyte sequences are decoded into a char, or into a surrogate pair for code
+ * points outside of the Basic Multilingual Plane, so the counts are the same as for chars of a {@link String} decoded
+ * from the file. Malformed input is split into replacement chars {@code U+FFFD} the same way as by the UTF-8
+ * {@link java.nio.charset.CharsetDecoder}: a byte that cannot start a sequence, or the longest prefix of a sequence
+ * that is still valid, is counted as one replacement char, and so is an encoded surrogate or an incomplete sequence at
+ * the end of the file. A sequence that crosses the end of a window is decoded from the beginning of the next window.
+ * <p>
+ * Runs of ASCII bytes, which make up most of a typical text, are counted by a {@link SwarAsciiKernel} eight bytes at a
+ * time. The scalar byte by byte path can be forced with the system property {@code filestats.kernel=scalar}, e.g. to
+ * compare their throughput.
+ */
+class Utf8CharCounter {
+    static final int HISTOGRAM_SIZE = Character.MAX_VALUE + 1;
+    static final long DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+    private static final int MAX_SEQUENCE_LENGTH = 4;
+    private static final char REPLACEMENT_CHAR = '\uFFFD';
+    private static final boolean SWAR_KERNEL = !"scalar".equals(System.getProperty("filestats.kernel"));
+
+    private Utf8CharCounter() {
+    }
+
+    /**
+     * Counts chars of a file into a new histogram
+     *
+     * @param path a path to a file
+     * @return a histogram, where the element {@code c} is the number of occurrences of char {@code c}
+     * @throws FileStatsException if the file cannot be read
+     */
+    static long[] count(Path path) {
+        long[] histogram = new long[HISTOGRAM_SIZE];
+        try (FileChannel channel = FileChannel.open(path)) {
+            count(channel, 0, channel.size(), DEFAULT_WINDOW_SIZE, histogram);
+        } catch (IOException e) {
+            throw new FileStatsException("Cannot read file " + path, e);
+        }
+        return histogram;
+    }
+
+    /**
+     * Sums histograms into a new one
+     *
+     * @param histograms histograms to sum
+     * @return a histogram, where each element is the sum of the corresponding elements of provided histograms
+     */
+    static long[] sum(Collection<long[]> histograms) {
+        long[] sum = new long[HISTOGRAM_SIZE];
+        for (long[] histogram : histograms) {
+            addTo(sum, histogram);
+        }
+        return sum;
+    }
+
+    /**
+     * Adds counts of a histogram to another histogram
+     *
+     * @param target    a histogram to add counts to
+     * @param histogram a histogram to add
+     */
+    static void addTo(long[] target, long[] histogram) {
+        for (int c = 0; c < HISTOGRAM_SIZE; c++) {
+            target[c] += histogram[c];
+        }
+    }
+
+    /**
+     * Adds chars of a byte range of a file to a histogram. The range must start at the beginning of a UTF-8 sequence.
+     *
+     * @param channel    an opened file channel
+     * @param start      the first byte of the range
+     * @param end        the end of the range (exclusive)
+     * @param windowSize a maximum size of a mapped window, at least {@value MAX_SEQUENCE_LENGTH} bytes
+     * @param histogram  a histogram to add counts to
+     */
+    static void count(FileChannel channel, long start, long end, long windowSize, long[] histogram) throws IOException {
+        count(channel, start, end, windowSize, histogram, true);
+    }
+
+    /**
+     * Adds chars of a byte range of a file to a histogram. The range must start at the beginning of a UTF-8 sequence.
+     * If the range is not the end of input, e.g. the file is still being written, an incomplete sequence at the end
+     * of the range is not counted.
+     *
+     * @param channel    an opened file channel
+     * @param start      the first byte of the range
+     * @param end        the end of the range (exclusive)
+     * @param windowSize a maximum size of a mapped window, at least {@value MAX_SEQUENCE_LENGTH} bytes
+     * @param histogram  a histogram to add counts to
+     * @param endOfInput whether the range ends at the end of input
+     * @return the position right after the last counted byte
+     */
+    static long count(FileChannel channel, long start, long end, long windowSize, long[] histogram,
+                      boolean endOfInput) throws IOException {
+        return count(channel, start, end, windowSize, histogram, null, endOfInput);
+    }
+
+    /**
+     * Adds code points of a whole file to a histogram. Unlike char counting, a supplementary code point is counted
+     * once in the supplementary part of the histogram, instead of counting its surrogates.
+     *
+     * @param channel    an opened file channel
+     * @param windowSize a maximum size of a mapped window, at least {@value MAX_SEQUENCE_LENGTH} bytes
+     * @param histogram  a histogram to add counts to
+     */
+    static void countCodePoints(FileChannel channel, long windowSize, CodePointHistogram histogram) throws IOException {
+        count(channel, 0, channel.size(), windowSize, histogram.bmpCounts(), histogram, true);
+    }
+
+    private static long count(FileChannel channel, long start, long end, long windowSize, long[] histogram,
+                              CodePointHistogram supplementaryHistogram, boolean endOfInput) throws IOException {
+        SwarAsciiKernel asciiKernel = SWAR_KERNEL ? new SwarAsciiKernel() : null;
+        long position = start;
+        while (position < end) {
+            long size = Math.min(windowSize, end - position);
+            boolean lastWindow = position + size == end;
+            MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            int counted = countWindow(window, histogram, supplementaryHistogram, endOfInput && lastWindow, asciiKernel);
+            position += counted;
+            if (lastWindow && counted < size) {
+                break; // the range ends with an incomplete sequence
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Adds chars of a whole buffer to a histogram
+     *
+     * @param buffer    a buffer with UTF-8 bytes
+     * @param histogram a histogram to add counts to
+     * @param swar      whether ASCII runs are counted by {@link SwarAsciiKernel}, or byte by byte
+     */
+    static void count(ByteBuffer buffer, long[] histogram, boolean swar) {
+        countWindow(buffer, histogram, null, true, swar ? new SwarAsciiKernel() : null);
+    }
+
+    /**
+     * Adds chars of a buffer to a histogram and returns the number of counted bytes. If the buffer is not the last
+     * one, a multibyte sequence at its end, that is not complete, is not counted. Supplementary code points are
+     * counted as surrogate pairs, unless a supplementary histogram is provided. ASCII runs are counted by a provided
+     * kernel, which is flushed at the end of the window, or byte by byte if it is {@code null}.
+     */
+    private static int countWindow(ByteBuffer window, long[] histogram, CodePointHistogram supplementaryHistogram,
+                                   boolean last, SwarAsciiKernel asciiKernel) {
+        int limit = window.limit();
+        int i = 0;
+        while (i < limit) {
+            byte b = window.get(i);
+            if (b >= 0) {
+                if (asciiKernel != null) {
+                    i = asciiKernel.countAsciiRun(window, i, limit);
+                } else {
+                    histogram[b]++;
+                    i++;
+                }
+                continue;
+            }
+            int length = sequenceLength(b);
+            if (i + length > limit && !last) {
+                break;
+            }
+            int codePoint = decode(window, i, length, limit);
+            if (codePoint < 0) {
+                histogram[REPLACEMENT_CHAR]++;
+                i -= codePoint;
+            } else {
+                if (codePoint < Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                    histogram[codePoint]++;
+                } else if (supplementaryHistogram != null) {
+                    supplementaryHistogram.increment(codePoint);
+                } else {
+                    histogram[Character.highSurrogate(codePoint)]++;
+                    histogram[Character.lowSurrogate(codePoint)]++;
+                }
+                i += length;
+            }
+        }
+        if (asciiKernel != null) {
+            asciiKernel.flushTo(histogram);
+        }
+        return i;
+    }
+
+    /**
+     * Returns the length of a sequence by its leading byte, or 1 if the byte cannot start a multibyte sequence
+     */
+    private static int sequenceLength(byte lead) {
+        int unsignedLead = lead & 0xFF;
+        if (unsignedLead >= 0xF0) {
+            return unsignedLead <= 0xF4 ? MAX_SEQUENCE_LENGTH : 1;
+        } else if (unsignedLead >= 0xE0) {
+            return 3;
+        } else if (unsignedLead >= 0xC2) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Decodes a multibyte sequence of a provided length, or returns minus the number of its bytes replaced by one
+     * replacement char if it is malformed. The allowed range of the second byte depends on the leading byte, which
+     * rules out overlong encodings and code points above {@code U+10FFFF}.
+     */
+    private static int decode(ByteBuffer window, int start, int length, int limit) {
+        if (length == 1) {
+            return -1;
+        }
+        int lead = window.get(start) & 0xFF;
+        int codePoint = lead & (0xFF >>> (length + 1));
+        for (int i = 1; i < length; i++) {
+            if (start + i >= limit) {
+                return -i;
+            }
+            int continuation = window.get(start + i) & 0xFF;
+            int min = i == 1 && lead == 0xE0 ? 0xA0 : i == 1 && lead == 0xF0 ? 0x90 : 0x80;
+            int max = i == 1 && lead == 0xF4 ? 0x8F : 0xBF;
+            if (continuation < min || continuation > max) {
+                return -i;
+            }
+            codePoint = (codePoint << 6) | (continuation & 0x3F);
+        }
+        return codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE ? -length : codePoint;
+    }
+}
@@ -0,0 +1,68 @@
+package com.bobocode.se;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * A benchmark of {@link Utf8CharCounter} kernels. It counts chars of a large mostly ASCII text with the scalar byte by
+ * byte kernel and with {@link SwarAsciiKernel}, and prints the throughput of each. It also counts chars of a large
+ * file with {@link FileStats#fromParallel(Path, ForkJoinPool)} using one thread and all available processors. It is
+ * not a part of the test suite, run it with {@code mvn test -Pbenchmark -am -pl 3-0-java-core/3-6-2-file-stats}.
+ */
+public class FileStatsBenchmark {
+    private static final String LINE = "The quick brown fox jumps over the lazy dog, привіт!\n";
+    private static final int LINES = 1_000_000;
+    private static final int FILE_REPEATS = 4;
+    private static final int WARMUP_ROUNDS = 5;
+
+    @Test
+    void compareKernelThroughput() {
+        byte[] bytes = LINE.repeat(LINES).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        for (boolean swar : new boolean[]{false, true}) {
+            for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                Utf8CharCounter.count(buffer, new long[Utf8CharCounter.HISTOGRAM_SIZE], swar);
+            }
+            long[] histogram = new long[Utf8CharCounter.HISTOGRAM_SIZE];
+            long startedAt = System.nanoTime();
+            Utf8CharCounter.count(buffer, histogram, swar);
+            long nanos = System.nanoTime() - startedAt;
+            System.out.printf("%s kernel: %d 'o' chars, %d MB/s%n", swar ? "swar" : "scalar", histogram['o'],
+                    bytes.length * 1000L / nanos);
+        }
+    }
+
+    @Test
+    void compareParallelScaling(@TempDir Path tempDir) throws IOException {
+        Path file = tempDir.resolve("lines.txt");
+        byte[] bytes = LINE.repeat(LINES).getBytes(StandardCharsets.UTF_8);
+        try (OutputStream out = Files.newOutputStream(file)) {
+            for (int i = 0; i < FILE_REPEATS; i++) {
+                out.write(bytes);
+            }
+        }
+        for (int parallelism : new int[]{1, Runtime.getRuntime().availableProcessors()}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                for (int round = 0; round < WARMUP_ROUNDS; round++) {
+                    FileStats.fromParallel(file, pool);
+                }
+                long startedAt = System.nanoTime();
+                FileStats fileStats = FileStats.fromParallel(file, pool);
+                long nanos = System.nanoTime() - startedAt;
+                System.out.printf("parallelism %d: %d 'o' chars, %d MB/s%n", parallelism,
+                        fileStats.getLongCharCount('o'), Files.size(file) * 1000L / nanos);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -4,6 +4,24 @@ import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -66,4 +84,306 @@ public class FileStatsTest {
         assertThat(springArticleContainsExistingCharacter).isTrue();
         assertThat(springArticleContainsWhitespace).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    @Order(6)
+    void createFileStatsFromPathWithMultibyteCharacters(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("text.txt"), "Привіт, світ! \uD83D\uDE00 ’’ ііі\n\t");
+
+        FileStats fileStats = FileStats.from(file);
+
+        assertThat(fileStats.getCharCount('і')).isEqualTo(5);
+        assertThat(fileStats.getCharCount('’')).isEqualTo(2);
+        assertThat(fileStats.getCharCount('\uD83D')).isEqualTo(1);
+        assertThat(fileStats.getLongCharCount('т')).isEqualTo(2);
+        assertThat(fileStats.getMostPopularCharacter()).isEqualTo('і');
+        assertThat(fileStats.containsCharacter('\n')).isFalse();
+        assertThat(fileStats.containsCharacter('x')).isFalse();
+    }
+
+    @Test
+    @Order(7)
+    void countCharactersAcrossMappedWindows(@TempDir Path tempDir) throws IOException {
+        String text = "abc ёжик \uD83D\uDE00 €uro ".repeat(100);
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text);
+        long[] expectedCounts = new long[Utf8CharCounter.HISTOGRAM_SIZE];
+        text.chars().forEach(c -> expectedCounts[c]++);
+
+        for (int windowSize : new int[]{4, 5, 7, 64, 1024}) {
+            long[] counts = new long[Utf8CharCounter.HISTOGRAM_SIZE];
+            try (FileChannel channel = FileChannel.open(file)) {
+                Utf8CharCounter.count(channel, 0, channel.size(), windowSize, counts);
+            }
+            assertThat(counts).isEqualTo(expectedCounts);
+        }
+    }
+
+    @Test
+    @Order(8)
+    void countMalformedBytesAsReplacementCharacter(@TempDir Path tempDir) throws IOException {
+        Path file = Files.write(tempDir.resolve("text.bin"), new byte[]{'a', (byte) 0xFF, (byte) 0xC3, 'b', (byte) 0xE2, (byte) 0x82});
+
+        FileStats fileStats = FileStats.from(file);
+
+        assertThat(fileStats.getCharCount('a')).isEqualTo(1);
+        assertThat(fileStats.getCharCount('b')).isEqualTo(1);
+        assertThat(fileStats.getCharCount('\uFFFD')).isEqualTo(3);
+    }
+
+    @Test
+    @Order(9)
+    void getMostPopularCharacterOfBlankFile(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("blank.txt"), " \n\t ", StandardCharsets.UTF_8);
+
+        FileStats fileStats = FileStats.from(file);
+
+        assertThat(fileStats.containsCharacter(' ')).isFalse();
+        assertThatThrownBy(fileStats::getMostPopularCharacter).isInstanceOf(FileStatsException.class);
+    }
+
+    @Test
+    @Order(10)
+    void createFileStatsInParallel() throws Exception {
+        Path lambdaArticle = Path.of(FileStatsTest.class.getClassLoader().getResource("sotl.txt").toURI());
+
+        FileStats fileStats = FileStats.fromParallel(lambdaArticle);
+
+        assertThat(fileStats.getCharCount('a')).isEqualTo(2345);
+        assertThat(fileStats.getMostPopularCharacter()).isEqualTo('e');
+        assertThat(fileStats.containsCharacter(' ')).isFalse();
+    }
+
+    @Test
+    @Order(11)
+    void countCharactersInParallelSegments(@TempDir Path tempDir) throws IOException {
+        String text = "abc ёжик \uD83D\uDE00 €uro\n".repeat(1000);
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text);
+        long[] expectedCounts = Utf8CharCounter.count(file);
+
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (long segmentSize : new long[]{1, 3, 100, 4096, Long.MAX_VALUE}) {
+                assertThat(ParallelCharCounter.count(file, segmentSize, pool)).isEqualTo(expectedCounts);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Order(12)
+    void createFileStatsIncrementally(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("app.log"), "started\n");
+        Path stateFile = tempDir.resolve("app.log.stats");
+
+        assertThat(FileStats.fromIncremental(file, stateFile).getCharCount('t')).isEqualTo(2);
+        assertThat(stateFile).exists();
+
+        Files.writeString(file, "request accepted\n", StandardOpenOption.APPEND);
+        FileStats fileStats = FileStats.fromIncremental(file, stateFile);
+        assertThat(fileStats.getCharCount('t')).isEqualTo(4);
+        assertThat(fileStats.getCharCount('e')).isEqualTo(5);
+        assertThat(fileStats.getMostPopularCharacter()).isEqualTo('e');
+        assertThat(FileStats.fromIncremental(file, stateFile).getCharCount('e')).isEqualTo(5);
+        try (Stream<Path> files = Files.list(tempDir)) {
+            assertThat(files).containsExactlyInAnyOrder(file, stateFile);
+        }
+    }
+
+    @Test
+    @Order(13)
+    void createFileStatsIncrementallyWhenSequenceIsAppendedInParts(@TempDir Path tempDir) throws IOException {
+        byte[] euro = "€".getBytes(StandardCharsets.UTF_8);
+        Path file = Files.write(tempDir.resolve("app.log"), new byte[]{'a', euro[0]});
+        Path stateFile = tempDir.resolve("app.log.stats");
+
+        FileStats fileStats = FileStats.fromIncremental(file, stateFile);
+        assertThat(fileStats.getCharCount('a')).isEqualTo(1);
+        assertThat(fileStats.containsCharacter('\uFFFD')).isFalse();
+        assertThat(FileStats.from(file).containsCharacter('\uFFFD')).isTrue();
+
+        Files.write(file, new byte[]{euro[1], euro[2], 'a'}, StandardOpenOption.APPEND);
+        fileStats = FileStats.fromIncremental(file, stateFile);
+        assertThat(fileStats.getCharCount('a')).isEqualTo(2);
+        assertThat(fileStats.getCharCount('€')).isEqualTo(1);
+        assertThat(fileStats.containsCharacter('\uFFFD')).isFalse();
+    }
+
+    @Test
+    @Order(14)
+    void createFileStatsIncrementallyAfterFileIsReplaced(@TempDir Path tempDir) throws IOException {
+        Path file = Files.writeString(tempDir.resolve("app.log"), "aaaa bbbb\n");
+        Path stateFile = tempDir.resolve("app.log.stats");
+        FileStats.fromIncremental(file, stateFile);
+
+        Files.writeString(file, "cc\n");
+        assertThat(FileStats.fromIncremental(file, stateFile).containsCharacter('a')).isFalse();
+
+        Files.writeString(file, "dd\n");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 1000));
+        FileStats fileStats = FileStats.fromIncremental(file, stateFile);
+        assertThat(fileStats.containsCharacter('c')).isFalse();
+        assertThat(fileStats.getCharCount('d')).isEqualTo(2);
+
+        Files.writeString(file, "eeeeee\n");
+        fileStats = FileStats.fromIncremental(file, stateFile);
+        assertThat(fileStats.containsCharacter('d')).isFalse();
+        assertThat(fileStats.getCharCount('e')).isEqualTo(6);
+
+        Files.writeString(stateFile, "damaged");
+        assertThat(FileStats.fromIncremental(file, stateFile).getCharCount('e')).isEqualTo(6);
+    }
+
+    @Test
+    @Order(15)
+    void createCodePointStats(@TempDir Path tempDir) throws IOException {
+        String text = "a \uD83D\uDE00\uD83D\uDE00\uD83D\uDE00 ёё \uD800\uDC00 \uD83D\uDE00 a a\n";
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text);
+
+        CodePointStats codePointStats = CodePointStats.from(file);
+
+        assertThat(codePointStats.getCodePointCount(0x1F600)).isEqualTo(4);
+        assertThat(codePointStats.getCodePointCount(0x10000)).isEqualTo(1);
+        assertThat(codePointStats.getCodePointCount('ё')).isEqualTo(2);
+        assertThat(codePointStats.containsCodePoint(0xD83D)).isFalse();
+        assertThat(codePointStats.containsCodePoint(' ')).isFalse();
+        assertThat(codePointStats.containsCodePoint(0x1F601)).isFalse();
+        assertThat(codePointStats.getMostPopularCodePoint()).isEqualTo(0x1F600);
+        assertThat(codePointStats.getMostPopularCodePoints(3)).containsExactly(0x1F600, 'a', 'ё');
+        assertThat(codePointStats.getMostPopularCodePoints(10)).containsExactly(0x1F600, 'a', 'ё', 0x10000);
+        assertThatThrownBy(() -> codePointStats.getCodePointCount(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @Order(16)
+    void createCodePointStatsWithManySupplementaryCodePoints(@TempDir Path tempDir) throws IOException {
+        StringBuilder text = new StringBuilder();
+        for (int codePoint = 0x1F000; codePoint < 0x1F400; codePoint++) {
+            text.appendCodePoint(codePoint).appendCodePoint(codePoint).append('x');
+        }
+        Path file = Files.writeString(tempDir.resolve("text.txt"), text);
+
+        CodePointStats codePointStats = CodePointStats.from(file);
+
+        for (int codePoint = 0x1F000; codePoint < 0x1F400; codePoint++) {
+            assertThat(codePointStats.getCodePointCount(codePoint)).isEqualTo(2);
+        }
+        assertThat(codePointStats.getMostPopularCodePoints(3)).containsExactly('x', 0x1F000, 0x1F001);
+    }
+
+    @Test
+    @Order(17)
+    void createCodePointStatsInOtherCharsets(@TempDir Path tempDir) throws IOException {
+        String text = "Привіт, \uD83D\uDE00 світ!\n".repeat(2000);
+        Path utf16File = Files.writeString(tempDir.resolve("utf16.txt"), text, StandardCharsets.UTF_16);
+        Path cp1251File = Files.writeString(tempDir.resolve("cp1251.txt"), "Привіт, світ!", Charset.forName("windows-1251"));
+
+        CodePointStats utf16Stats = CodePointStats.from(utf16File, StandardCharsets.UTF_16);
+        CodePointStats utf8Stats = CodePointStats.from(Files.writeString(tempDir.resolve("utf8.txt"), text));
+        CodePointStats cp1251Stats = CodePointStats.from(cp1251File, Charset.forName("windows-1251"));
+
+        for (int codePoint : new int[]{'П', 'і', 'т', 0x1F600, '!', 0xD83D}) {
+            assertThat(utf16Stats.getCodePointCount(codePoint)).isEqualTo(utf8Stats.getCodePointCount(codePoint));
+        }
+        assertThat(utf16Stats.getCodePointCount(0x1F600)).isEqualTo(2000);
+        assertThat(cp1251Stats.getCodePointCount('і')).isEqualTo(2);
+        assertThat(cp1251Stats.getMostPopularCodePoints(3)).containsExactly('в', 'т', 'і');
+    }
+
+    @Test
+    @Order(18)
+    void createFileStatsFromDirectory(@TempDir Path tempDir) throws IOException {
+        for (int i = 0; i < 30; i++) {
+            Path subdirectory = Files.createDirectories(tempDir.resolve("logs").resolve("day" + i % 3));
+            Files.writeString(subdirectory.resolve("app" + i + ".txt"), "ab\n");
+            Files.writeString(subdirectory.resolve("app" + i + ".bin"), "xyz");
+        }
+        Files.writeString(tempDir.resolve("readme.txt"), "aaa");
+        List<DirectoryStatsProgress> progress = new CopyOnWriteArrayList<>();
+
+        FileStats fileStats = FileStats.fromDirectory(tempDir, "logs/**.txt", 4, progress::add);
+
+        assertThat(fileStats.getCharCount('a')).isEqualTo(30);
+        assertThat(fileStats.getCharCount('b')).isEqualTo(30);
+        assertThat(fileStats.containsCharacter('x')).isFalse();
+        assertThat(progress).hasSize(31);
+        DirectoryStatsProgress lastProgress = progress.get(progress.size() - 1);
+        assertThat(lastProgress.getProcessedFileCount()).isEqualTo(30);
+        assertThat(lastProgress.getProcessedByteCount()).isEqualTo(90);
+        assertThat(lastProgress.getFilesPerSecond()).isPositive();
+        assertThat(lastProgress.getMegabytesPerSecond()).isPositive();
+        assertThat(FileStats.fromDirectory(tempDir, "**.txt").getCharCount('a')).isEqualTo(33);
+    }
+
+    @Test
+    @Order(19)
+    void createFileStatsFromNonExistingDirectory(@TempDir Path tempDir) {
+        assertThatThrownBy(() -> FileStats.fromDirectory(tempDir.resolve("missing"), "**"))
+                .isInstanceOf(FileStatsException.class);
+    }
+
+    @Test
+    @Order(20)
+    void swarAndScalarKernelsCountTheSameChars() {
+        Random random = new Random(42);
+        String[] samples = {"", "a", "abcdefg", "abcdefgh", "aaaaaaaaaaaaaaaaaaaaaaaaa", "Привіт, світ! 😀 hello",
+                "hello world\n".repeat(100) + "кінець" + "\t~".repeat(37)};
+        for (String sample : samples) {
+            assertSameCounts(ByteBuffer.wrap(sample.getBytes(StandardCharsets.UTF_8)));
+        }
+        for (int i = 0; i < 200; i++) {
+            byte[] bytes = new byte[random.nextInt(100)];
+            random.nextBytes(bytes);
+            if (i % 2 == 0) {
+                for (int j = 0; j < bytes.length; j++) {
+                    bytes[j] &= 0x7F; // mostly ASCII, with a few non-ASCII bytes left
+                    if (random.nextInt(20) == 0) bytes[j] |= 0x80;
+                }
+            }
+            assertSameCounts(ByteBuffer.wrap(bytes));
+        }
+    }
+
+    @Test
+    @Order(21)
+    void countMalformedInputLikeCharsetDecoder(@TempDir Path tempDir) throws IOException {
+        Random random = new Random(42);
+        byte[] interestingBytes = {'a', (byte) 0x80, (byte) 0x8F, (byte) 0x90, (byte) 0x9F, (byte) 0xA0, (byte) 0xBF,
+                (byte) 0xC0, (byte) 0xC2, (byte) 0xDF, (byte) 0xE0, (byte) 0xE1, (byte) 0xED, (byte) 0xEF,
+                (byte) 0xF0, (byte) 0xF1, (byte) 0xF4, (byte) 0xF5, (byte) 0xFF};
+        for (int i = 0; i < 500; i++) {
+            byte[] bytes = new byte[random.nextInt(40)];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = interestingBytes[random.nextInt(interestingBytes.length)];
+            }
+            String text = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+            Path file = Files.write(tempDir.resolve("text" + i + ".bin"), bytes);
+            long[] histogram = new long[Utf8CharCounter.HISTOGRAM_SIZE];
+            CodePointHistogram decodedHistogram = new CodePointHistogram();
+            try (FileChannel channel = FileChannel.open(file)) {
+                Utf8CharCounter.count(channel, 0, channel.size(), 5, histogram);
+                DecodingCodePointCounter.count(channel, StandardCharsets.UTF_8, 5, decodedHistogram);
+            }
+            CodePointStats codePointStats = CodePointStats.from(file);
+
+            for (char c : new char[]{'a', '\uFFFD'}) {
+                long expected = text.chars().filter(textChar -> textChar == c).count();
+                String description = c + " in " + Arrays.toString(bytes);
+                assertThat(histogram[c]).as(description).isEqualTo(expected);
+                assertThat(codePointStats.getCodePointCount(c)).as(description).isEqualTo(expected);
+                assertThat(decodedHistogram.get(c)).as(description).isEqualTo(expected);
+            }
+        }
+    }
+
+    private void assertSameCounts(ByteBuffer buffer) {
+        long[] scalarHistogram = new long[Character.MAX_VALUE + 1];
+        long[] swarHistogram = new long[Character.MAX_VALUE + 1];
+        Utf8CharCounter.count(buffer, scalarHistogram, false);
+        Utf8CharCounter.count(buffer, swarHistogram, true);
+        assertThat(swarHistogram).isEqualTo(scalarHistogram);
+    }
+}
@@ -11,10 +11,49 @@ import java.util.regex.Pattern;
  * throws {@link ExerciseNotCompletedException}
  * <p>
  * TODO: remove exception and implement each method of this class using {@link Pattern}
+ * <p>
+ * All patterns are compiled once, when the class is loaded. A {@link Pattern} is immutable and can be shared by
+ * threads, so each method returns the same instance on every call, and only a {@link Matcher} is created per search.
+ * Replacements of phone numbers and links are appended by a {@link RegexReplacer}, which does not allocate per match.
+ * Only the immutable replacements are shared, a replacer with its matcher and builder is created per call, so nothing
+ * is retained between calls and the methods are reentrant.
  *
  * @author Andriy Paliychuk
  */
 public class CrazyRegex {
+    private static final Pattern SPECIFIC_WORD = Pattern.compile("Curiosity");
+    private static final Pattern FIRST_WORD = Pattern.compile("^[a-zA-z]+");
+    private static final Pattern LAST_WORD = Pattern.compile("[a-zA-z]+$");
+    private static final Pattern NUMBERS = Pattern.compile("[0-9]+");
+    private static final Pattern DATES = Pattern.compile("[0-9]{4}-[0-9]{2}-[0-9]{2}");
+    private static final Pattern SPELLINGS_OF_COLOR = Pattern.compile("\\bcolou?rs?\\b");
+    private static final Pattern ZIP_CODES = Pattern.compile(" \\b[0-9]{5}\\b ");
+    private static final Pattern SPELLINGS_OF_LINK = Pattern.compile("\\bl.?nk\\b");
+    private static final Pattern SIMPLE_PHONE_NUMBER = Pattern.compile("[0-9]{3}-[0-9]{3}-[0-9]{4}");
+    private static final Pattern NUMBERS_FROM_ZERO_TO_FIVE_WITH_LENGTH_THREE = Pattern.compile("[0-5]{3}");
+    private static final Pattern WORDS_WITH_FIVE_LENGTH = Pattern.compile("\\b[a-zA-Z]{5}\\b");
+    private static final Pattern LETTERS_AND_DIGITS_WITH_LENGTH_THREE = Pattern.compile("\\b[\\w+]{2,3}\\b");
+    private static final Pattern WORDS_WHICH_BEGIN_WITH_CAPITAL_LETTER = Pattern.compile("\\b[A-Z][a-z]+\\b");
+    private static final Pattern ABBREVIATION = Pattern.compile("\\b(AK|AL|AR|AZ|CA|CO|CT|PR|PA|PD)\\b");
+    private static final Pattern OPEN_BRACES = Pattern.compile("\\{+");
+    private static final Pattern RESOURCES = Pattern.compile("(?<=\\[)\\w+(?=])");
+    private static final Pattern LINKS_IN_NOTE = Pattern.compile("\\bhttps://[a-z]+\\.?[a-z]+\\.[a-z]+\\b");
+    private static final Pattern LINKS_IN_JSON = Pattern.compile("\\bhttp://[a-z0-9]+\\.[a-z]+\\.nasa\\.gov/.+\\b");
+    private static final Pattern EMAILS = Pattern.compile("[a-z0-9.]+@[a-z]+.(com|net|edu)");
+    private static final Pattern PHONE_NUMBERS = Pattern.compile("\\(?[0-9]{3}(-|\\.|\\))[0-9]{3}(-|\\.)[0-9]{4}");
+    private static final Pattern DUPLICATES = Pattern.compile("\\b(\\w+)\\s+\\1\\b");
+    private static final Pattern FIRST_AND_LAST_NAMES = Pattern.compile("([A-Z][a-z]+), ([A-Z][a-z]+)");
+    private static final Pattern PHONE_NUMBERS_WITH_AREA_CODE =
+            Pattern.compile("\\(?([0-9]{3,4})\\)?[-\\.]?([0-9]{3})[-\\.]?([0-9]{4})");
+    private static final Pattern RESOURCES_WITH_LINKS =
+            Pattern.compile("\\[((?<=\\[)\\w+(?=]))]\\(((?<=\\().+(?=\\)))\\)");
+    private static final RegexReplacer.Replacement PHONE_NUMBER_MASK = (input, match, out) -> out
+            .append(input, match.start(1), match.end(1))
+            .append("-XXX-XXXX");
+    private static final RegexReplacer.Replacement HREF = (input, match, out) -> out
+            .append("<a href=\"").append(input, match.start(2), match.end(2))
+            .append("\">").append(input, match.start(1), match.end(1))
+            .append("</a>");
 
     /**
      * A Pattern that that finds all words "Curiosity" in text
@@ -22,7 +61,7 @@ public class CrazyRegex {
      * @return a pattern that looks for the word "Curiosity"
      */
     public Pattern findSpecificWord() {
-        return Pattern.compile("Curiosity");
+        return SPECIFIC_WORD;
     }
 
     /**
@@ -31,7 +70,7 @@ public class CrazyRegex {
      * @return a pattern that looks for the first word in text
      */
     public Pattern findFirstWord() {
-        return Pattern.compile("^[a-zA-z]+");
+        return FIRST_WORD;
     }
 
     /**
@@ -40,7 +79,7 @@ public class CrazyRegex {
      * @return a pattern that looks for the last word in text
      */
     public Pattern findLastWord() {
-        return Pattern.compile("[a-zA-z]+$");
+        return LAST_WORD;
     }
 
     /**
@@ -51,7 +90,7 @@ public class CrazyRegex {
      * @return a pattern that looks for numbers
      */
     public Pattern findAllNumbers() {
-        return Pattern.compile("[0-9]+");
+        return NUMBERS;
     }
 
     /**
@@ -60,7 +99,7 @@ public class CrazyRegex {
      * @return a pattern that looks for dates
      */
     public Pattern findDates() {
-        return Pattern.compile("[0-9]{4}-[0-9]{2}-[0-9]{2}");
+        return DATES;
     }
 
     /**
@@ -70,7 +109,7 @@ public class CrazyRegex {
      * @return a pattern that looks for different variations of word "color"
      */
     public Pattern findDifferentSpellingsOfColor() {
-        return Pattern.compile("\\bcolou?rs?\\b");
+        return SPELLINGS_OF_COLOR;
     }
 
     /**
@@ -81,7 +120,7 @@ public class CrazyRegex {
      * @return a pattern that looks for zip codes
      */
     public Pattern findZipCodes() {
-        return Pattern.compile(" \\b[0-9]{5}\\b ");
+        return ZIP_CODES;
     }
 
     /**
@@ -91,7 +130,7 @@ public class CrazyRegex {
      * @return a pattern that looks for different variations of word "link"
      */
     public Pattern findDifferentSpellingsOfLink() {
-        return Pattern.compile("\\bl.?nk\\b");
+        return SPELLINGS_OF_LINK;
     }
 
     /**
@@ -101,7 +140,7 @@ public class CrazyRegex {
      * @return a pattern that looks for phone numbers
      */
     public Pattern findSimplePhoneNumber() {
-        return Pattern.compile("[0-9]{3}-[0-9]{3}-[0-9]{4}");
+        return SIMPLE_PHONE_NUMBER;
     }
 
     /**
@@ -112,7 +151,7 @@ public class CrazyRegex {
      * @return a pattern that looks for numbers with length 3 and digits from 0 to 5 in the middle
      */
     public Pattern findNumbersFromZeroToFiveWithLengthThree() {
-        return Pattern.compile("[0-5]{3}");
+        return NUMBERS_FROM_ZERO_TO_FIVE_WITH_LENGTH_THREE;
     }
 
     /**
@@ -121,7 +160,7 @@ public class CrazyRegex {
      * @return a pattern that looks for the words that have length 5
      */
     public Pattern findAllWordsWithFiveLength() {
-        return Pattern.compile("\\b[a-zA-Z]{5}\\b");
+        return WORDS_WITH_FIVE_LENGTH;
     }
 
     /**
@@ -132,7 +171,7 @@ public class CrazyRegex {
      * @return a pattern that looks for words and numbers that not shorter 2 and not longer 3
      */
     public Pattern findAllLettersAndDigitsWithLengthThree() {
-        return Pattern.compile("\\b[\\w+]{2,3}\\b");
+        return LETTERS_AND_DIGITS_WITH_LENGTH_THREE;
     }
 
     /**
@@ -141,7 +180,7 @@ public class CrazyRegex {
      * @return a pattern that looks for the words that begin with capital letter
      */
     public Pattern findAllWordsWhichBeginWithCapitalLetter() {
-        return Pattern.compile("\\b[A-Z][a-z]+\\b");
+        return WORDS_WHICH_BEGIN_WITH_CAPITAL_LETTER;
     }
 
     /**
@@ -151,7 +190,7 @@ public class CrazyRegex {
      * @return a pattern that looks for the abbreviations above
      */
     public Pattern findAbbreviation() {
-        return Pattern.compile("\\b(AK|AL|AR|AZ|CA|CO|CT|PR|PA|PD)\\b");
+        return ABBREVIATION;
     }
 
     /**
@@ -160,7 +199,7 @@ public class CrazyRegex {
      * @return a pattern that looks for all open braces
      */
     public Pattern findAllOpenBraces() {
-        return Pattern.compile("\\{+");
+        return OPEN_BRACES;
     }
 
     /**
@@ -169,7 +208,7 @@ public class CrazyRegex {
      * @return a pattern that looks for everything inside []
      */
     public Pattern findOnlyResources() {
-        return Pattern.compile("(?<=\\[)\\w+(?=])");
+        return RESOURCES;
     }
 
     /**
@@ -178,7 +217,7 @@ public class CrazyRegex {
      * @return a pattern that looks for all https links in note.txt
      */
     public Pattern findOnlyLinksInNote() {
-        return Pattern.compile("\\bhttps://[a-z]+\\.?[a-z]+\\.[a-z]+\\b");
+        return LINKS_IN_NOTE;
     }
 
     /**
@@ -187,7 +226,7 @@ public class CrazyRegex {
      * @return a pattern that looks for all http links in nasa.json
      */
     public Pattern findOnlyLinksInJson() {
-        return Pattern.compile("\\bhttp://[a-z0-9]+\\.[a-z]+\\.nasa\\.gov/.+\\b");
+        return LINKS_IN_JSON;
     }
 
     /**
@@ -196,7 +235,7 @@ public class CrazyRegex {
      * @return a pattern that looks for all .com, .net and .edu emails
      */
     public Pattern findAllEmails() {
-        return Pattern.compile("[a-z0-9.]+@[a-z]+.(com|net|edu)");
+        return EMAILS;
     }
 
     /**
@@ -208,7 +247,7 @@ public class CrazyRegex {
      * @return a pattern that looks for phone numbers patterns above
      */
     public Pattern findAllPatternsForPhoneNumbers() {
-        return Pattern.compile("\\(?[0-9]{3}(-|\\.|\\))[0-9]{3}(-|\\.)[0-9]{4}");
+        return PHONE_NUMBERS;
     }
 
     /**
@@ -217,7 +256,7 @@ public class CrazyRegex {
      * @return a pattern that looks for duplicates
      */
     public Pattern findOnlyDuplicates() {
-        return Pattern.compile("\\b(\\w+)\\s+\\1\\b");
+        return DUPLICATES;
     }
 
     /**
@@ -228,7 +267,7 @@ public class CrazyRegex {
      * @return String where all names recorded as last name first name
      */
     public String replaceFirstAndLastNames(String names) {
-        Matcher matcher = Pattern.compile("([A-Z][a-z]+), ([A-Z][a-z]+)").matcher(names);
+        Matcher matcher = FIRST_AND_LAST_NAMES.matcher(names);
         return matcher.replaceAll(matchResult -> matchResult.group(2) + " " + matchResult.group(1));
     }
 
@@ -240,8 +279,18 @@ public class CrazyRegex {
      * @return String where in all phone numbers last 7 digits replaced to X
      */
     public String replaceLastSevenDigitsOfPhoneNumberToX(String phones) {
-        Matcher matcher = Pattern.compile("(\\(?[0-9]{3,4}\\)?)[-\\.]?([0-9]{3})[-\\.]?([0-9]{4})").matcher(phones);
-        return matcher.replaceAll(matchResult -> String.format("%s-XXX-XXXX", matcher.group(1).replaceAll("\\(|\\)", "")));
+        return new RegexReplacer(PHONE_NUMBERS_WITH_AREA_CODE, PHONE_NUMBER_MASK).replaceAll(phones);
+    }
+
+    /**
+     * Writes a text with phone numbers to an output, where the last 7 digits of all phone numbers are replaced to X,
+     * as {@link CrazyRegex#replaceLastSevenDigitsOfPhoneNumberToX(String)} does
+     *
+     * @param phones a text with phone numbers
+     * @param out    an output to append to
+     */
+    public void replaceLastSevenDigitsOfPhoneNumberToX(CharSequence phones, Appendable out) {
+        new RegexReplacer(PHONE_NUMBERS_WITH_AREA_CODE, PHONE_NUMBER_MASK).replaceAll(phones, out);
     }
 
     /**
@@ -253,7 +302,17 @@ public class CrazyRegex {
      * @return String where all resources embraced in href
      */
     public String insertLinksAndResourcesIntoHref(String links) {
-        Matcher matcher = Pattern.compile("\\[((?<=\\[)\\w+(?=]))]\\(((?<=\\().+(?=\\)))\\)").matcher(links);
-        return matcher.replaceAll(matchResult -> String.format("<a href=\"%s\">%s</a>", matcher.group(2), matcher.group(1)));
+        return new RegexReplacer(RESOURCES_WITH_LINKS, HREF).replaceAll(links);
+    }
+
+    /**
+     * Writes a text with resources and links to an output, where all resources are embraced in href, as
+     * {@link CrazyRegex#insertLinksAndResourcesIntoHref(String)} does
+     *
+     * @param links a text with resources and links
+     * @param out   an output to append to
+     */
+    public void insertLinksAndResourcesIntoHref(CharSequence links, Appendable out) {
+        new RegexReplacer(RESOURCES_WITH_LINKS, HREF).replaceAll(links, out);
     }
 }
@@ -0,0 +1,11 @@
+package com.bobocode.se;
+
+public class CrazyRegexException extends RuntimeException {
+    public CrazyRegexException(String message) {
+        super(message);
+    }
+
+    public CrazyRegexException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
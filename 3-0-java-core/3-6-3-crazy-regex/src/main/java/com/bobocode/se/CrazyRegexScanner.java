@@ -0,0 +1,99 @@
+package com.bobocode.se;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * {@link CrazyRegexScanner} extracts values of several {@link MatchType}s from text in a single pass, instead of running
+ * one {@link CrazyRegex} pattern after another over the same text.
+ * <p>
+ * Patterns of the chosen types are combined into one alternation, where each type is a named group, and the type of a
+ * match is the group that captured it. Since the text is scanned once, matches never overlap: the match that starts
+ * first wins, and if several types match at the same position, the type declared first in {@link MatchType} wins.
+ * Matches of a type that do not overlap with other types are the same as the ones of its {@link CrazyRegex} pattern.
+ * <p>
+ * A scanner is immutable and can be shared by threads.
+ */
+public class CrazyRegexScanner {
+    private final MatchType[] types;
+    private final Pattern pattern;
+
+    private CrazyRegexScanner(Set<MatchType> types) {
+        this.types = types.toArray(new MatchType[0]);
+        this.pattern = Pattern.compile(types.stream()
+                .map(type -> "(?<" + type.groupName() + ">" + type.regex() + ")")
+                .collect(joining("|")));
+    }
+
+    /**
+     * Creates a scanner of all {@link MatchType}s
+     *
+     * @return a new scanner
+     */
+    public static CrazyRegexScanner ofAll() {
+        return of(EnumSet.allOf(MatchType.class));
+    }
+
+    /**
+     * Creates a scanner of provided types
+     *
+     * @param first a type to extract
+     * @param rest  other types to extract
+     * @return a new scanner
+     */
+    public static CrazyRegexScanner of(MatchType first, MatchType... rest) {
+        return of(EnumSet.of(first, rest));
+    }
+
+    /**
+     * Creates a scanner of provided types
+     *
+     * @param types types to extract
+     * @return a new scanner
+     */
+    public static CrazyRegexScanner of(Set<MatchType> types) {
+        if (types.isEmpty()) throw new IllegalArgumentException("At least one match type is required");
+        return new CrazyRegexScanner(EnumSet.copyOf(types));
+    }
+
+    /**
+     * Finds all matches in a text
+     *
+     * @param text a text to scan
+     * @return matches in the order they appear in the text
+     */
+    public List<TypedMatch> scan(CharSequence text) {
+        List<TypedMatch> matches = new ArrayList<>();
+        scan(text, matches::add);
+        return matches;
+    }
+
+    /**
+     * Passes all matches of a text to a consumer, in the order they appear in the text
+     *
+     * @param text     a text to scan
+     * @param consumer a consumer of matches
+     */
+    public void scan(CharSequence text, Consumer<TypedMatch> consumer) {
+        Matcher matcher = pattern.matcher(text);
+        while (matcher.find()) {
+            consumer.accept(new TypedMatch(typeOf(matcher), matcher.start(), matcher.end(), matcher.group()));
+        }
+    }
+
+    private MatchType typeOf(Matcher matcher) {
+        for (MatchType type : types) {
+            if (matcher.start(type.groupName()) >= 0) {
+                return type;
+            }
+        }
+        throw new IllegalStateException("Match does not belong to any group: " + matcher.group());
+    }
+}
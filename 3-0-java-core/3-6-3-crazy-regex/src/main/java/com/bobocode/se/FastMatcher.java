@@ -0,0 +1,272 @@
+package com.bobocode.se;
+
+/**
+ * {@link FastMatcher} finds matches of the highest-volume {@link CrazyRegex} patterns without the regex engine. Each
+ * matcher is a hand-written scanner that reads every char a bounded number of times, instead of trying the pattern
+ * with backtracking at every position. Matches are exactly the ones {@link java.util.regex.Matcher#find()} returns
+ * for the corresponding pattern.
+ * <p>
+ * Like a {@link java.util.regex.Matcher}, a {@link FastMatcher} is created for one text, searches it with
+ * {@link FastMatcher#find()} from left to right and is not thread-safe.
+ */
+public abstract class FastMatcher {
+    final CharSequence text;
+    private int searchFrom;
+    private int start = -1;
+    private int end = -1;
+
+    private FastMatcher(CharSequence text) {
+        this.text = text;
+    }
+
+    /**
+     * Creates a matcher of {@link CrazyRegex#findAllNumbers()}
+     *
+     * @param text a text to search
+     * @return a new matcher
+     */
+    public static FastMatcher numbers(CharSequence text) {
+        return new NumberMatcher(text);
+    }
+
+    /**
+     * Creates a matcher of {@link CrazyRegex#findDates()}
+     *
+     * @param text a text to search
+     * @return a new matcher
+     */
+    public static FastMatcher dates(CharSequence text) {
+        return new TemplateMatcher(text, "dddd-dd-dd");
+    }
+
+    /**
+     * Creates a matcher of {@link CrazyRegex#findSimplePhoneNumber()}
+     *
+     * @param text a text to search
+     * @return a new matcher
+     */
+    public static FastMatcher simplePhoneNumbers(CharSequence text) {
+        return new TemplateMatcher(text, "ddd-ddd-dddd");
+    }
+
+    /**
+     * Creates a matcher of {@link CrazyRegex#findAllEmails()}
+     *
+     * @param text a text to search
+     * @return a new matcher
+     */
+    public static FastMatcher emails(CharSequence text) {
+        return new EmailMatcher(text);
+    }
+
+    /**
+     * Finds the next match, that starts after the end of the previous one
+     *
+     * @return {@code true} if a match is found
+     */
+    public boolean find() {
+        if (searchFrom > text.length() || !find(searchFrom)) {
+            start = end = -1;
+            searchFrom = text.length() + 1;
+            return false;
+        }
+        searchFrom = end;
+        return true;
+    }
+
+    /**
+     * @return the start index of the current match
+     */
+    public int start() {
+        checkMatch();
+        return start;
+    }
+
+    /**
+     * @return the end index (exclusive) of the current match
+     */
+    public int end() {
+        checkMatch();
+        return end;
+    }
+
+    /**
+     * @return the text of the current match
+     */
+    public String group() {
+        checkMatch();
+        return text.subSequence(start, end).toString();
+    }
+
+    private void checkMatch() {
+        if (start < 0) throw new IllegalStateException("No match found");
+    }
+
+    /**
+     * Finds the first match that starts at or after a provided index and records it with
+     * {@link FastMatcher#found(int, int)}
+     *
+     * @param from an index to search from
+     * @return {@code true} if a match is found
+     */
+    abstract boolean find(int from);
+
+    boolean found(int start, int end) {
+        this.start = start;
+        this.end = end;
+        return true;
+    }
+
+    static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    static boolean isLowerCaseLetter(char c) {
+        return c >= 'a' && c <= 'z';
+    }
+
+    /**
+     * Matches {@code [0-9]+}: the first run of digits
+     */
+    private static class NumberMatcher extends FastMatcher {
+        NumberMatcher(CharSequence text) {
+            super(text);
+        }
+
+        @Override
+        boolean find(int from) {
+            int length = text.length();
+            int i = from;
+            while (i < length && !isDigit(text.charAt(i))) {
+                i++;
+            }
+            if (i == length) {
+                return false;
+            }
+            int matchStart = i;
+            while (i < length && isDigit(text.charAt(i))) {
+                i++;
+            }
+            return found(matchStart, i);
+        }
+    }
+
+    /**
+     * Matches a fixed-length template, where {@code 'd'} stands for {@code [0-9]} and any other char stands for itself
+     */
+    private static class TemplateMatcher extends FastMatcher {
+        private final char[] template;
+
+        TemplateMatcher(CharSequence text, String template) {
+            super(text);
+            this.template = template.toCharArray();
+        }
+
+        @Override
+        boolean find(int from) {
+            for (int i = from, last = text.length() - template.length; i <= last; i++) {
+                if (matchesAt(i)) {
+                    return found(i, i + template.length);
+                }
+            }
+            return false;
+        }
+
+        private boolean matchesAt(int index) {
+            for (int j = 0; j < template.length; j++) {
+                char c = text.charAt(index + j);
+                if (template[j] == 'd' ? !isDigit(c) : c != template[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Matches {@code [a-z0-9.]+@[a-z]+.(com|net|edu)}, where the unescaped dot is any code point but a line terminator.
+     * <p>
+     * The local part cannot contain {@code @}, so a match that starts within a run of local part chars must take the
+     * rest of the run, and it either matches from the beginning of the run or from nowhere in it. Hence each run is
+     * tried once. The greedy domain is backtracked from its longest length, like the regex engine does.
+     */
+    private static class EmailMatcher extends FastMatcher {
+        private static final int SUFFIX_LENGTH = 3;
+
+        EmailMatcher(CharSequence text) {
+            super(text);
+        }
+
+        @Override
+        boolean find(int from) {
+            int length = text.length();
+            int i = from;
+            while (i < length) {
+                while (i < length && !isLocalPartChar(text.charAt(i))) {
+                    i++;
+                }
+                int runStart = i;
+                while (i < length && isLocalPartChar(text.charAt(i))) {
+                    i++;
+                }
+                if (i > runStart && i < length && text.charAt(i) == '@') {
+                    int emailEnd = matchDomain(i + 1);
+                    if (emailEnd >= 0) {
+                        return found(runStart, emailEnd);
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Matches {@code [a-z]+.(com|net|edu)} at a provided index and returns the end of the match, or -1
+         */
+        private int matchDomain(int domainStart) {
+            int length = text.length();
+            int domainEnd = domainStart;
+            while (domainEnd < length && isLowerCaseLetter(text.charAt(domainEnd))) {
+                domainEnd++;
+            }
+            for (; domainEnd > domainStart; domainEnd--) {
+                int suffixStart = skipAnyChar(domainEnd);
+                if (suffixStart >= 0 && hasSuffixAt(suffixStart)) {
+                    return suffixStart + SUFFIX_LENGTH;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Matches an unescaped dot at a provided index and returns the index after it, or -1
+         */
+        private int skipAnyChar(int index) {
+            if (index >= text.length()) {
+                return -1;
+            }
+            char c = text.charAt(index);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return -1;
+            }
+            boolean surrogatePair = Character.isHighSurrogate(c) && index + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(index + 1));
+            return surrogatePair ? index + 2 : index + 1;
+        }
+
+        private boolean hasSuffixAt(int index) {
+            if (index + SUFFIX_LENGTH > text.length()) {
+                return false;
+            }
+            char first = text.charAt(index);
+            char second = text.charAt(index + 1);
+            char third = text.charAt(index + 2);
+            return first == 'c' && second == 'o' && third == 'm'
+                    || first == 'n' && second == 'e' && third == 't'
+                    || first == 'e' && second == 'd' && third == 'u';
+        }
+
+        private static boolean isLocalPartChar(char c) {
+            return isLowerCaseLetter(c) || isDigit(c) || c == '.';
+        }
+    }
+}
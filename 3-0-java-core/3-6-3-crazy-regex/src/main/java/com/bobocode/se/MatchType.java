@@ -0,0 +1,36 @@
+package com.bobocode.se;
+
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * {@link MatchType} is a kind of value that {@link CrazyRegexScanner} extracts from text. Each type is matched by the
+ * same pattern as the corresponding {@link CrazyRegex} method.
+ */
+public enum MatchType {
+    EMAIL(CrazyRegex::findAllEmails),
+    PHONE_NUMBER(CrazyRegex::findAllPatternsForPhoneNumbers),
+    DATE(CrazyRegex::findDates),
+    ZIP_CODE(CrazyRegex::findZipCodes),
+    LINK(CrazyRegex::findOnlyLinksInNote);
+
+    private final String regex;
+
+    MatchType(Function<CrazyRegex, Pattern> patternMethod) {
+        this.regex = patternMethod.apply(new CrazyRegex()).pattern();
+    }
+
+    /**
+     * @return a regex that matches values of this type
+     */
+    String regex() {
+        return regex;
+    }
+
+    /**
+     * @return a name of a regex group that captures values of this type
+     */
+    String groupName() {
+        return name().replace("_", "").toLowerCase();
+    }
+}
@@ -0,0 +1,165 @@
+package com.bobocode.se;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link ParallelRegexMatcher} finds all matches of a pattern (e.g. one of {@link CrazyRegex}) in a large text on a
+ * {@link ForkJoinPool}. The text is recursively split in halves until chunks are small enough, and each chunk is
+ * searched by its own {@link Matcher}. Matches are returned in document order and are the same ones a single
+ * {@link Matcher#find()} loop returns.
+ * <p>
+ * Chunks are split right after a newline near the middle, or after a whitespace if there is no newline, so most matches
+ * do not cross chunk boundaries. A chunk is searched with transparent bounds, so lookarounds and word boundaries see the
+ * neighbouring chunks, and its last match may end beyond the chunk. When it does, the next chunk is searched again
+ * from the end of that match, until a match coincides with one the chunk has already found.
+ * <p>
+ * Like {@link StreamingRegexExtractor}, matches must not be longer than a provided max match length. A chunk is
+ * searched only up to that many chars past its end, so a search never scans the rest of the text looking for the next
+ * match, and the total work stays proportional to the text length even if matches are rare.
+ * <p>
+ * The text must not be modified while it is searched.
+ */
+public class ParallelRegexMatcher {
+    private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+    private static final int DEFAULT_MAX_MATCH_LENGTH = 4096;
+    private static final int MAX_BOUNDARY_SEARCH_LENGTH = 4096;
+
+    private final Pattern pattern;
+    private final ForkJoinPool pool;
+    private final int chunkSize;
+    private final int maxMatchLength;
+
+    public ParallelRegexMatcher(Pattern pattern) {
+        this(pattern, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+    }
+
+    /**
+     * @param pattern   a pattern to search
+     * @param pool      a pool that runs search tasks
+     * @param chunkSize a maximum number of chars searched by one task
+     */
+    public ParallelRegexMatcher(Pattern pattern, ForkJoinPool pool, int chunkSize) {
+        this(pattern, pool, chunkSize, DEFAULT_MAX_MATCH_LENGTH);
+    }
+
+    /**
+     * @param pattern        a pattern to search
+     * @param pool           a pool that runs search tasks
+     * @param chunkSize      a maximum number of chars searched by one task
+     * @param maxMatchLength a max number of chars in a match
+     */
+    public ParallelRegexMatcher(Pattern pattern, ForkJoinPool pool, int chunkSize, int maxMatchLength) {
+        if (chunkSize <= 0) throw new IllegalArgumentException("Chunk size must be positive: " + chunkSize);
+        if (maxMatchLength <= 0) throw new IllegalArgumentException("Max match length must be positive");
+        this.pattern = pattern;
+        this.pool = pool;
+        this.chunkSize = chunkSize;
+        this.maxMatchLength = maxMatchLength;
+    }
+
+    /**
+     * Finds all matches of a text
+     *
+     * @param text a text to search
+     * @return matches in the order they appear in the text
+     */
+    public List<MatchResult> findAll(CharSequence text) {
+        return pool.invoke(new ChunkTask(text, 0, text.length()));
+    }
+
+    /**
+     * Creates a matcher that searches from a provided index for matches that start before a chunk end
+     */
+    private Matcher matcher(CharSequence text, int from, int chunkEnd) {
+        return pattern.matcher(text)
+                .useTransparentBounds(true)
+                .useAnchoringBounds(false)
+                .region(from, (int) Math.min(text.length(), (long) chunkEnd + maxMatchLength));
+    }
+
+    /**
+     * Returns the index after the first newline, or else after the first whitespace, that follows a provided index
+     * closely. If there is none, the index itself is returned.
+     */
+    private static int chunkBoundary(CharSequence text, int index, int end) {
+        int searchEnd = Math.min(end, index + MAX_BOUNDARY_SEARCH_LENGTH);
+        for (int i = index; i < searchEnd; i++) {
+            if (text.charAt(i) == '\n') {
+                return i + 1;
+            }
+        }
+        for (int i = index; i < searchEnd; i++) {
+            if (Character.isWhitespace(text.charAt(i))) {
+                return i + 1;
+            }
+        }
+        return index;
+    }
+
+    private class ChunkTask extends RecursiveTask<List<MatchResult>> {
+        private final CharSequence text;
+        private final int start;
+        private final int end;
+
+        ChunkTask(CharSequence text, int start, int end) {
+            this.text = text;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected List<MatchResult> compute() {
+            int middle = end - start > chunkSize ? chunkBoundary(text, start + (end - start) / 2, end) : end;
+            if (middle == end) {
+                List<MatchResult> matches = new ArrayList<>();
+                Matcher matcher = matcher(text, start, end);
+                while (matcher.find() && belongsToChunk(matcher.start())) {
+                    matches.add(matcher.toMatchResult());
+                }
+                return matches;
+            }
+            ChunkTask right = new ChunkTask(text, middle, end);
+            right.fork();
+            List<MatchResult> matches = new ChunkTask(text, start, middle).compute();
+            return merge(matches, right.join(), middle);
+        }
+
+        /**
+         * Appends matches of the right chunk to the ones of the left chunk. If the last left match crosses the
+         * boundary, the right chunk is searched again from its end, until a match coincides with a right match.
+         */
+        private List<MatchResult> merge(List<MatchResult> matches, List<MatchResult> rightMatches, int middle) {
+            int lastEnd = matches.isEmpty() ? start : matches.get(matches.size() - 1).end();
+            if (lastEnd <= middle) {
+                matches.addAll(rightMatches);
+                return matches;
+            }
+            Matcher matcher = matcher(text, lastEnd, end);
+            int next = 0;
+            while (matcher.find() && belongsToChunk(matcher.start())) {
+                while (next < rightMatches.size() && rightMatches.get(next).start() < matcher.start()) {
+                    next++;
+                }
+                if (next < rightMatches.size() && rightMatches.get(next).start() == matcher.start()) {
+                    matches.addAll(rightMatches.subList(next, rightMatches.size()));
+                    return matches;
+                }
+                matches.add(matcher.toMatchResult());
+            }
+            return matches;
+        }
+
+        /**
+         * Checks whether a match starts in this chunk. An empty match at the end of the text belongs to the last chunk.
+         */
+        private boolean belongsToChunk(int matchStart) {
+            return matchStart < end || end == text.length();
+        }
+    }
+}
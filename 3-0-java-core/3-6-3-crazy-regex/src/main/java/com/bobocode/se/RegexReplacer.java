@@ -0,0 +1,83 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.util.regex.MatchResult;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link RegexReplacer} replaces all matches of a pattern like {@link Matcher#replaceAll(java.util.function.Function)},
+ * but without allocating per match. A {@link Replacement} appends each replacement straight to the output, copying
+ * groups by their offsets in the input instead of creating strings with {@link Matcher#group()} or
+ * {@link String#format}.
+ * <p>
+ * The output is either a string built in a {@link StringBuilder} that is reused by subsequent calls, or any
+ * {@link Appendable} (e.g. a {@link java.io.Writer}), so a result does not have to be built in memory at all.
+ * A replacer also reuses its {@link Matcher}, so it is not thread-safe.
+ */
+public class RegexReplacer {
+    private static final int MAX_RETAINED_CAPACITY = 1 << 20;
+
+    private final Matcher matcher;
+    private final Replacement replacement;
+    private StringBuilder builder = new StringBuilder();
+
+    /**
+     * {@link Replacement} appends the replacement of one match to the output
+     */
+    @FunctionalInterface
+    public interface Replacement {
+        /**
+         * @param input an input text
+         * @param match the current match, whose group offsets point to the input
+         * @param out   an output to append the replacement to
+         * @throws IOException if the output cannot be written
+         */
+        void append(CharSequence input, MatchResult match, Appendable out) throws IOException;
+    }
+
+    public RegexReplacer(Pattern pattern, Replacement replacement) {
+        this.matcher = pattern.matcher("");
+        this.replacement = replacement;
+    }
+
+    /**
+     * Replaces all matches of an input
+     *
+     * @param input an input text
+     * @return the input with all matches replaced
+     */
+    public String replaceAll(CharSequence input) {
+        builder.setLength(0);
+        replaceAll(input, builder);
+        String result = builder.toString();
+        if (builder.capacity() > MAX_RETAINED_CAPACITY) {
+            builder = new StringBuilder();
+        }
+        return result;
+    }
+
+    /**
+     * Writes an input with all matches replaced to an output
+     *
+     * @param input an input text
+     * @param out   an output to append to
+     * @throws CrazyRegexException if the output cannot be written
+     */
+    public void replaceAll(CharSequence input, Appendable out) {
+        matcher.reset(input);
+        try {
+            int copyFrom = 0;
+            while (matcher.find()) {
+                out.append(input, copyFrom, matcher.start());
+                replacement.append(input, matcher, out);
+                copyFrom = matcher.end();
+            }
+            out.append(input, copyFrom, input.length());
+        } catch (IOException e) {
+            throw new CrazyRegexException("Cannot write replaced text", e);
+        } finally {
+            matcher.reset("");
+        }
+    }
+}
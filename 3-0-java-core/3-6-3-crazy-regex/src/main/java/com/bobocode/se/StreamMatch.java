@@ -0,0 +1,14 @@
+package com.bobocode.se;
+
+import lombok.Value;
+
+/**
+ * {@link StreamMatch} is a value found by {@link StreamingRegexExtractor}. Its start (inclusive) and end (exclusive)
+ * are char offsets from the beginning of the decoded input.
+ */
+@Value
+public class StreamMatch {
+    long start;
+    long end;
+    String value;
+}
@@ -0,0 +1,134 @@
+package com.bobocode.se;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * {@link StreamingRegexExtractor} applies a pattern (e.g. one of {@link CrazyRegex}) to a file or a channel of any size
+ * without reading it into memory. The input is decoded into a window of a fixed number of chars that slides over it,
+ * so memory use does not depend on the input size.
+ * <p>
+ * Matches must not be longer than a provided max match length. Matches that start within the last max match length
+ * chars of a window are not reported, since they may cross the window end. The window then slides so that they are
+ * searched again at the beginning of the next one. Up to max match length chars before the search position are also
+ * kept, so that lookbehinds and word boundaries see the preceding text. Matches of {@code ^} and {@code $} without
+ * {@link Pattern#MULTILINE} are only reported at the real beginning and end of the input.
+ */
+public class StreamingRegexExtractor {
+    private static final int DEFAULT_WINDOW_SIZE = 1 << 20;
+    private static final int DEFAULT_MAX_MATCH_LENGTH = 4096;
+
+    private final Pattern pattern;
+    private final int windowSize;
+    private final int maxMatchLength;
+
+    public StreamingRegexExtractor(Pattern pattern) {
+        this(pattern, DEFAULT_WINDOW_SIZE, DEFAULT_MAX_MATCH_LENGTH);
+    }
+
+    /**
+     * @param pattern        a pattern to apply
+     * @param windowSize     a number of chars held in memory, must be greater than twice the max match length
+     * @param maxMatchLength a max number of chars in a match
+     */
+    public StreamingRegexExtractor(Pattern pattern, int windowSize, int maxMatchLength) {
+        if (maxMatchLength <= 0) throw new IllegalArgumentException("Max match length must be positive");
+        if (windowSize <= 2 * maxMatchLength) throw new IllegalArgumentException(
+                "Window size must be greater than twice the max match length: " + windowSize);
+        this.pattern = pattern;
+        this.windowSize = windowSize;
+        this.maxMatchLength = maxMatchLength;
+    }
+
+    /**
+     * Passes all matches of a UTF-8 file to a consumer, in the order they appear in the file
+     *
+     * @param path     a path to the file
+     * @param consumer a consumer of matches
+     */
+    public void extract(Path path, Consumer<StreamMatch> consumer) {
+        extract(path, StandardCharsets.UTF_8, consumer);
+    }
+
+    /**
+     * Passes all matches of a file to a consumer, in the order they appear in the file
+     *
+     * @param path     a path to the file
+     * @param charset  a charset of the file
+     * @param consumer a consumer of matches
+     */
+    public void extract(Path path, Charset charset, Consumer<StreamMatch> consumer) {
+        try (FileChannel channel = FileChannel.open(path)) {
+            extract(channel, charset, consumer);
+        } catch (IOException e) {
+            throw new CrazyRegexException("Cannot read file " + path, e);
+        }
+    }
+
+    /**
+     * Passes all matches of a channel to a consumer, in the order they appear in the channel. The channel is read
+     * until its end and is not closed.
+     *
+     * @param channel  a channel to read
+     * @param charset  a charset of the channel bytes
+     * @param consumer a consumer of matches
+     */
+    public void extract(ReadableByteChannel channel, Charset charset, Consumer<StreamMatch> consumer) {
+        Reader reader = Channels.newReader(channel, charset.newDecoder(), -1);
+        char[] window = new char[windowSize];
+        long windowOffset = 0; // the input offset of the first window char
+        int length = 0;
+        int searchFrom = 0;
+        try {
+            while (true) {
+                length = fill(reader, window, length);
+                boolean endOfInput = length < windowSize;
+                int reportBefore = endOfInput ? length : length - maxMatchLength;
+                int nextSearchFrom = reportBefore;
+                Matcher matcher = pattern.matcher(CharBuffer.wrap(window, 0, length))
+                        .useTransparentBounds(true)
+                        .useAnchoringBounds(false)
+                        .region(searchFrom, length);
+                while (matcher.find() && matcher.start() < reportBefore) {
+                    consumer.accept(new StreamMatch(windowOffset + matcher.start(), windowOffset + matcher.end(),
+                            matcher.group()));
+                    nextSearchFrom = Math.max(nextSearchFrom, matcher.end());
+                }
+                if (endOfInput) {
+                    return;
+                }
+                int keepFrom = Math.max(0, nextSearchFrom - maxMatchLength);
+                System.arraycopy(window, keepFrom, window, 0, length - keepFrom);
+                windowOffset += keepFrom;
+                length -= keepFrom;
+                searchFrom = nextSearchFrom - keepFrom;
+            }
+        } catch (IOException e) {
+            throw new CrazyRegexException("Cannot read channel", e);
+        }
+    }
+
+    /**
+     * Reads chars into a window until it is full or the input ends, and returns the number of chars in the window
+     */
+    private static int fill(Reader reader, char[] window, int length) throws IOException {
+        while (length < window.length) {
+            int read = reader.read(window, length, window.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        return length;
+    }
+}
@@ -0,0 +1,14 @@
+package com.bobocode.se;
+
+import lombok.Value;
+
+/**
+ * {@link TypedMatch} is a value found by {@link CrazyRegexScanner}, together with its type and position in the text
+ */
+@Value
+public class TypedMatch {
+    MatchType type;
+    int start;
+    int end;
+    String value;
+}
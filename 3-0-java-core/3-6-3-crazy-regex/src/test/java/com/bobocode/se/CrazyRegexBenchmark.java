@@ -0,0 +1,121 @@
+package com.bobocode.se;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A benchmark of {@link CrazyRegex} extractors on a large text, made of the sample files of {@link CrazyRegexTest}
+ * repeated. It prints the throughput of each compared implementation. It is not a part of the test suite, run it with
+ * {@code mvn test -Pbenchmark -am -pl 3-0-java-core/3-6-3-crazy-regex}.
+ */
+public class CrazyRegexBenchmark {
+    private static final int TEXT_SIZE = 100 * 1024 * 1024;
+    private static final int WARMUP_ROUNDS = 3;
+
+    private final CrazyRegex crazyRegex = new CrazyRegex();
+    private final String text = repeatSamples(TEXT_SIZE);
+
+    @Test
+    void compareFastMatchersWithPatterns() {
+        List<Pattern> patterns = List.of(crazyRegex.findAllNumbers(), crazyRegex.findDates(),
+                crazyRegex.findSimplePhoneNumber(), crazyRegex.findAllEmails());
+        List<Function<CharSequence, FastMatcher>> fastMatchers = List.of(FastMatcher::numbers, FastMatcher::dates,
+                FastMatcher::simplePhoneNumbers, FastMatcher::emails);
+        for (int i = 0; i < patterns.size(); i++) {
+            Pattern pattern = patterns.get(i);
+            Function<CharSequence, FastMatcher> fastMatcher = fastMatchers.get(i);
+            measure(pattern + " regex", () -> {
+                Matcher matcher = pattern.matcher(text);
+                int matches = 0;
+                while (matcher.find()) {
+                    matches++;
+                }
+                return matches;
+            });
+            measure(pattern + " fast matcher", () -> {
+                FastMatcher matcher = fastMatcher.apply(text);
+                int matches = 0;
+                while (matcher.find()) {
+                    matches++;
+                }
+                return matches;
+            });
+        }
+    }
+
+    @Test
+    void compareCompiledPatternsWithCompilingPerCall() {
+        for (Pattern pattern : List.of(crazyRegex.findAllNumbers(), crazyRegex.findAllEmails(),
+                crazyRegex.findOnlyResources())) {
+            measure(pattern + " compiled per line", () -> countMatchesPerLine(() -> Pattern.compile(pattern.pattern())));
+            measure(pattern + " compiled once", () -> countMatchesPerLine(() -> pattern));
+        }
+    }
+
+    /**
+     * Searches each line of the text separately with a pattern provided per line, like a caller that invokes a
+     * {@link CrazyRegex} method for each line does
+     */
+    private int countMatchesPerLine(Supplier<Pattern> patternPerLine) {
+        int matches = 0;
+        for (int lineStart = 0, lineEnd; lineStart < text.length(); lineStart = lineEnd + 1) {
+            lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = text.length();
+            }
+            Matcher matcher = patternPerLine.get().matcher(text).region(lineStart, lineEnd);
+            while (matcher.find()) {
+                matches++;
+            }
+        }
+        return matches;
+    }
+
+    @Test
+    void compareParallelMatcherScaling() {
+        for (int parallelism : new int[]{1, Runtime.getRuntime().availableProcessors()}) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                ParallelRegexMatcher matcher = new ParallelRegexMatcher(crazyRegex.findAllEmails(), pool, 64 * 1024);
+                measure("emails with parallelism " + parallelism, () -> matcher.findAll(text).size());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private void measure(String name, Run run) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            run.matchCount();
+        }
+        long startedAt = System.nanoTime();
+        int matches = run.matchCount();
+        long nanos = System.nanoTime() - startedAt;
+        System.out.printf("%s: %d matches, %d MB/s%n", name, matches, text.length() * 1000L / nanos);
+    }
+
+    @FunctionalInterface
+    private interface Run {
+        int matchCount();
+    }
+
+    @SneakyThrows
+    private static String repeatSamples(int size) {
+        StringBuilder samples = new StringBuilder();
+        for (String fileName : List.of("note.txt", "nasa.json")) {
+            Path path = Paths.get(CrazyRegex.class.getClassLoader().getResource(fileName).toURI());
+            samples.append(Files.readString(path)).append('\n');
+        }
+        return samples.toString().repeat(size / samples.length() + 1);
+    }
+}
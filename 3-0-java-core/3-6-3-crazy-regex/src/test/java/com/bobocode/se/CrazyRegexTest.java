@@ -5,16 +5,29 @@ import org.junit.jupiter.api.MethodOrderer;
 import org.junit.jupiter.api.Order;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestMethodOrder;
+import org.junit.jupiter.api.Timeout;
 
+import java.io.ByteArrayInputStream;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
+import static org.assertj.core.api.AssertionsForClassTypes.assertThatThrownBy;
 
 /**
  * A test class for {@link CrazyRegex}.
@@ -223,6 +236,207 @@ public class CrazyRegexTest {
         );
     }
 
+    @Test
+    @Order(25)
+    void patternsAreCompiledOnce() {
+        assertThat(crazyRegex.findAllEmails()).isSameAs(crazyRegex.findAllEmails());
+        assertThat(new CrazyRegex().findDates()).isSameAs(crazyRegex.findDates());
+    }
+
+    @Test
+    @Order(26)
+    void scanAllMatchTypesInOnePass() {
+        CrazyRegexScanner scanner = CrazyRegexScanner.ofAll();
+
+        List<TypedMatch> textMatches = scanner.scan(text);
+        List<TypedMatch> jsonMatches = scanner.scan(json);
+
+        assertThat(values(textMatches, MatchType.EMAIL)).isEqualTo(regexChecker(crazyRegex.findAllEmails(), text));
+        assertThat(values(textMatches, MatchType.PHONE_NUMBER))
+                .isEqualTo(regexChecker(crazyRegex.findAllPatternsForPhoneNumbers(), text));
+        assertThat(values(textMatches, MatchType.ZIP_CODE)).isEqualTo(regexChecker(crazyRegex.findZipCodes(), text));
+        assertThat(values(textMatches, MatchType.LINK)).isEqualTo(regexChecker(crazyRegex.findOnlyLinksInNote(), text));
+        assertThat(values(jsonMatches, MatchType.DATE)).isEqualTo(regexChecker(crazyRegex.findDates(), json));
+        for (int i = 1; i < textMatches.size(); i++) {
+            assertThat(textMatches.get(i - 1).getEnd() <= textMatches.get(i).getStart()).isTrue();
+        }
+    }
+
+    @Test
+    @Order(27)
+    void scanChosenMatchTypes() {
+        String note = "Call (412)555-1212 or mail terek@koval.net before 2015-05-30";
+
+        List<TypedMatch> matches = CrazyRegexScanner.of(MatchType.EMAIL, MatchType.DATE).scan(note);
+
+        assertThat(matches).isEqualTo(List.of(
+                new TypedMatch(MatchType.EMAIL, 27, 42, "terek@koval.net"),
+                new TypedMatch(MatchType.DATE, 50, 60, "2015-05-30")));
+        assertThatThrownBy(() -> CrazyRegexScanner.of(Set.of())).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @Order(28)
+    void extractMatchesFromFileWithSmallWindow() {
+        String note = readFileContent("note.txt");
+        for (Pattern pattern : List.of(crazyRegex.findAllEmails(), crazyRegex.findAllNumbers(),
+                crazyRegex.findOnlyDuplicates(), crazyRegex.findFirstWord(), crazyRegex.findLastWord())) {
+            StreamingRegexExtractor extractor = new StreamingRegexExtractor(pattern, 64, 24);
+            List<StreamMatch> matches = new ArrayList<>();
+
+            extractor.extract(resourcePath("note.txt"), matches::add);
+
+            assertThat(streamValues(matches)).isEqualTo(regexChecker(pattern, note));
+            for (StreamMatch match : matches) {
+                assertThat(note.substring((int) match.getStart(), (int) match.getEnd())).isEqualTo(match.getValue());
+            }
+        }
+    }
+
+    @Test
+    @Order(29)
+    void extractMatchesFromChannel() {
+        String notes = readFileContent("note.txt").repeat(1000);
+        StreamingRegexExtractor extractor = new StreamingRegexExtractor(crazyRegex.findAllEmails(), 1000, 100);
+        List<StreamMatch> matches = new ArrayList<>();
+
+        extractor.extract(Channels.newChannel(new ByteArrayInputStream(notes.getBytes(StandardCharsets.UTF_8))),
+                StandardCharsets.UTF_8, matches::add);
+
+        assertThat(matches.size()).isEqualTo(4000);
+        assertThat(streamValues(matches)).isEqualTo(regexChecker(crazyRegex.findAllEmails(), notes));
+        assertThatThrownBy(() -> new StreamingRegexExtractor(crazyRegex.findAllEmails(), 100, 50))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @Order(30)
+    void fastMatchersFindTheSameMatchesAsPatterns() {
+        String[] tokens = {"0", "12", "1971", "-", ".", "@", "a", "c", "o", "m", "n", "e", "t", "d", "u", "com", "net",
+                "edu", "gmail", "X", " ", "\n", "\r", "\u2028", "(", ")", "\uD83D\uDE00", "\uD83D"};
+        Random random = new Random(42);
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder sample = new StringBuilder();
+            for (int j = random.nextInt(40); j > 0; j--) {
+                sample.append(tokens[random.nextInt(tokens.length)]);
+            }
+            assertSameMatches(sample.toString());
+        }
+        assertSameMatches(text);
+        assertSameMatches(json);
+        assertSameMatches("1971-11-23 555-555-5555 a@b.com a.b@c@d.edu x@yahoocom y@gmail\ncom");
+    }
+
+    @Test
+    @Order(31)
+    void parallelMatcherFindsTheSameMatchesInDocumentOrder() {
+        String notes = text + "\n" + json + "\n" + text;
+        List<Pattern> patterns = List.of(crazyRegex.findAllNumbers(), crazyRegex.findZipCodes(),
+                crazyRegex.findOnlyDuplicates(), crazyRegex.findOnlyLinksInJson(), crazyRegex.findFirstWord(),
+                crazyRegex.findLastWord(), crazyRegex.findOnlyResources(), crazyRegex.findAllEmails(),
+                Pattern.compile("\\s*"), Pattern.compile("(?s)\\{.*?}"));
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (Pattern pattern : patterns) {
+                List<String> expected = new ArrayList<>();
+                Matcher matcher = pattern.matcher(notes);
+                while (matcher.find()) {
+                    expected.add(matcher.start() + ":" + matcher.end());
+                }
+                for (int chunkSize : new int[]{1, 7, 100, 1 << 20}) {
+                    List<String> matches = new ParallelRegexMatcher(pattern, pool, chunkSize).findAll(notes).stream()
+                            .map(match -> match.start() + ":" + match.end())
+                            .collect(toList());
+                    assertThat(matches).as("%s with chunk size %d", pattern, chunkSize).isEqualTo(expected);
+                }
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    @Order(32)
+    void replaceIntoAppendable() {
+        StringWriter phones = new StringWriter();
+        StringWriter links = new StringWriter();
+
+        crazyRegex.replaceLastSevenDigitsOfPhoneNumberToX("call (948)333-5656 or 111.747.6236", phones);
+        crazyRegex.insertLinksAndResourcesIntoHref("see [Bobocode](https://www.bobocode.com/$1)!", links);
+
+        assertThat(phones.toString()).isEqualTo("call 948-XXX-XXXX or 111-XXX-XXXX");
+        assertThat(links.toString()).isEqualTo("see <a href=\"https://www.bobocode.com/$1\">Bobocode</a>!");
+    }
+
+    @Test
+    @Order(33)
+    void reuseRegexReplacer() {
+        RegexReplacer replacer = new RegexReplacer(crazyRegex.findAllNumbers(),
+                (input, match, out) -> out.append('<').append(input, match.start(), match.end()).append('>'));
+
+        assertThat(replacer.replaceAll("a1b22c")).isEqualTo("a<1>b<22>c");
+        assertThat(replacer.replaceAll("no numbers")).isEqualTo("no numbers");
+        assertThat(replacer.replaceAll(text)).isEqualTo(crazyRegex.findAllNumbers().matcher(text).replaceAll("<$0>"));
+    }
+
+    @Test
+    @Order(34)
+    @Timeout(value = 10, unit = TimeUnit.SECONDS)
+    void parallelMatcherSearchesSparseTextInLinearTime() {
+        String notes = "lorem ipsum dolor sit amet\n".repeat(200_000) + "mail me at john.doe@gmail.com\n"
+                + "lorem ipsum dolor sit amet\n".repeat(1_000);
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            List<String> matches = new ParallelRegexMatcher(crazyRegex.findAllEmails(), pool, 1024).findAll(notes)
+                    .stream()
+                    .map(match -> notes.substring(match.start(), match.end()))
+                    .collect(toList());
+
+            assertThat(matches).isEqualTo(List.of("john.doe@gmail.com"));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private void assertSameMatches(String sample) {
+        for (Pattern pattern : fastMatcherPatterns()) {
+            Matcher matcher = pattern.matcher(sample);
+            FastMatcher fastMatcher = fastMatcher(pattern, sample);
+            while (matcher.find()) {
+                assertThat(fastMatcher.find()).as("%s in %s", pattern, sample).isTrue();
+                assertThat(fastMatcher.start()).as("%s in %s", pattern, sample).isEqualTo(matcher.start());
+                assertThat(fastMatcher.end()).as("%s in %s", pattern, sample).isEqualTo(matcher.end());
+            }
+            assertThat(fastMatcher.find()).as("%s in %s", pattern, sample).isFalse();
+        }
+    }
+
+    private List<Pattern> fastMatcherPatterns() {
+        return List.of(crazyRegex.findAllNumbers(), crazyRegex.findDates(), crazyRegex.findSimplePhoneNumber(),
+                crazyRegex.findAllEmails());
+    }
+
+    private FastMatcher fastMatcher(Pattern pattern, String sample) {
+        if (pattern == crazyRegex.findAllNumbers()) return FastMatcher.numbers(sample);
+        if (pattern == crazyRegex.findDates()) return FastMatcher.dates(sample);
+        if (pattern == crazyRegex.findSimplePhoneNumber()) return FastMatcher.simplePhoneNumbers(sample);
+        return FastMatcher.emails(sample);
+    }
+
+    private String streamValues(List<StreamMatch> matches) {
+        return matches.stream()
+                .filter(match -> !match.getValue().isEmpty())
+                .map(match -> "\n" + match.getValue())
+                .collect(joining());
+    }
+
+    private String values(List<TypedMatch> matches, MatchType type) {
+        return matches.stream()
+                .filter(match -> match.getType() == type)
+                .map(match -> "\n" + match.getValue())
+                .collect(joining());
+    }
+
     private String regexChecker(Pattern pattern, String str2WorkWith) {
         Matcher matcher = pattern.matcher(str2WorkWith);
         StringBuilder stringBuilder = new StringBuilder();
@@ -235,11 +449,20 @@ public class CrazyRegexTest {
     }
 
     @SneakyThrows
-    private String readWholeFile(String fileName) {
-        Path filePath = Paths.get(CrazyRegex.class.getClassLoader()
+    private String readFileContent(String fileName) {
+        return Files.readString(resourcePath(fileName));
+    }
+
+    @SneakyThrows
+    private Path resourcePath(String fileName) {
+        return Paths.get(CrazyRegex.class.getClassLoader()
                 .getResource(fileName)
                 .toURI());
-        try (Stream<String> fileLinesStream = Files.lines(filePath)) {
+    }
+
+    @SneakyThrows
+    private String readWholeFile(String fileName) {
+        try (Stream<String> fileLinesStream = Files.lines(resourcePath(fileName))) {
             return fileLinesStream.collect(joining("\n"));
         }
     }
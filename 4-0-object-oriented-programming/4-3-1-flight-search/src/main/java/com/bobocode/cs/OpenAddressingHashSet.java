@@ -0,0 +1,308 @@
+package com.bobocode.cs;
+
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * {@link OpenAddressingHashSet} is a {@link java.util.Set} implementation that stores elements directly in a flat array
+ * using open addressing with linear probing. Unlike {@link java.util.HashSet} it does not allocate an entry object
+ * per element, so each element costs only an array slot plus its cached hash code.
+ * <p>
+ * The table size is always a power of two, so a slot index is computed with a bit mask instead of a division.
+ * Hash codes are cached in a parallel {@code int[]} array, which allows to skip {@link Object#equals(Object)} calls
+ * for colliding elements and to resize the table without calling {@link Object#hashCode()} again.
+ * Removal uses backward shift deletion, so the table never contains tombstones.
+ * <p>
+ * This set does not permit {@code null} elements and is not thread-safe.
+ *
+ * @param <T> generic type parameter
+ */
+public class OpenAddressingHashSet<T> extends AbstractSet<T> {
+
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAX_CAPACITY = 1 << 30;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private Object[] elements;
+    private int[] hashes;
+    private int size;
+    private int threshold;
+    private int modCount;
+
+    /**
+     * Creates an empty set with a default capacity.
+     */
+    public OpenAddressingHashSet() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty set that can hold the expected number of elements without resizing.
+     *
+     * @param expectedSize the number of elements the set is expected to hold
+     * @throws IllegalArgumentException if the expected size is negative
+     */
+    public OpenAddressingHashSet(int expectedSize) {
+        if (expectedSize < 0) throw new IllegalArgumentException("Expected size cannot be negative: " + expectedSize);
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        long minCapacity = (long) Math.ceil(expectedSize / (double) LOAD_FACTOR);
+        if (minCapacity >= MAX_CAPACITY) {
+            return MAX_CAPACITY;
+        }
+        int capacity = DEFAULT_CAPACITY;
+        while (capacity < minCapacity) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    private void allocate(int capacity) {
+        elements = new Object[capacity];
+        hashes = new int[capacity];
+        threshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    /**
+     * Grows the table in advance, so it can hold the expected number of elements without resizing.
+     *
+     * @param expectedSize the number of elements the set is expected to hold
+     */
+    public void ensureCapacity(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        if (capacity > elements.length) {
+            rehash(capacity);
+        }
+    }
+
+    private static int hash(Object element) {
+        int h = element.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Adds an element to the set if it is not already present.
+     *
+     * @param element element to add
+     * @return {@code true} if the set did not already contain the element
+     * @throws NullPointerException if the element is {@code null}
+     */
+    @Override
+    public boolean add(T element) {
+        Objects.requireNonNull(element);
+        int hash = hash(element);
+        int mask = elements.length - 1;
+        int index = hash & mask;
+        Object current;
+        while ((current = elements[index]) != null) {
+            if (hashes[index] == hash && current.equals(element)) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        if (size == threshold) {
+            resize();
+            index = emptySlotFor(hash);
+        }
+        elements[index] = element;
+        hashes[index] = hash;
+        size++;
+        modCount++;
+        return true;
+    }
+
+    private int emptySlotFor(int hash) {
+        int mask = elements.length - 1;
+        int index = hash & mask;
+        while (elements[index] != null) {
+            index = (index + 1) & mask;
+        }
+        return index;
+    }
+
+    private void resize() {
+        if (elements.length == MAX_CAPACITY) {
+            throw new IllegalStateException("Set cannot grow beyond " + MAX_CAPACITY + " slots");
+        }
+        rehash(elements.length << 1);
+    }
+
+    private void rehash(int capacity) {
+        Object[] oldElements = elements;
+        int[] oldHashes = hashes;
+        allocate(capacity);
+        for (int i = 0; i < oldElements.length; i++) {
+            if (oldElements[i] != null) {
+                int index = emptySlotFor(oldHashes[i]);
+                elements[index] = oldElements[i];
+                hashes[index] = oldHashes[i];
+            }
+        }
+    }
+
+    /**
+     * Checks if the set contains a specific element.
+     *
+     * @param element element to look for
+     * @return {@code true} if the set contains the element, {@code false} otherwise
+     */
+    @Override
+    public boolean contains(Object element) {
+        return element != null && indexOf(element) >= 0;
+    }
+
+    private int indexOf(Object element) {
+        int hash = hash(element);
+        int mask = elements.length - 1;
+        int index = hash & mask;
+        Object current;
+        while ((current = elements[index]) != null) {
+            if (hashes[index] == hash && current.equals(element)) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Removes an element from the set if it is present.
+     *
+     * @param element element to remove
+     * @return {@code true} if the set contained the element
+     */
+    @Override
+    public boolean remove(Object element) {
+        if (element == null) {
+            return false;
+        }
+        int index = indexOf(element);
+        if (index < 0) {
+            return false;
+        }
+        shiftBackFrom(index, null);
+        size--;
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Fills the gap at the given slot by moving back the elements of the same probe sequence, so lookups never stop
+     * on an empty slot before they reach their element. Elements, that wrap around the table end and are moved from
+     * its beginning to a slot before the gap, are added to a provided list, if it is not {@code null}.
+     */
+    private void shiftBackFrom(int gap, List<Object> wrappedElements) {
+        int mask = elements.length - 1;
+        int index = gap;
+        while (true) {
+            index = (index + 1) & mask;
+            Object current = elements[index];
+            if (current == null) {
+                break;
+            }
+            int home = hashes[index] & mask;
+            if (((index - home) & mask) >= ((index - gap) & mask)) {
+                if (wrappedElements != null && index < gap) {
+                    wrappedElements.add(current);
+                }
+                elements[gap] = current;
+                hashes[gap] = hashes[index];
+                gap = index;
+            }
+        }
+        elements[gap] = null;
+        hashes[gap] = 0;
+    }
+
+    /**
+     * @return amount of stored elements
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all elements, keeping the current table capacity.
+     */
+    @Override
+    public void clear() {
+        if (size > 0) {
+            Arrays.fill(elements, null);
+            Arrays.fill(hashes, 0);
+            size = 0;
+            modCount++;
+        }
+    }
+
+    /**
+     * Returns an iterator over the elements in reverse table order. The iterator is fail-fast and supports removal.
+     * <p>
+     * Since the table is traversed backwards, the backward shift of a removal moves elements only into visited slots.
+     * They were already returned, unless the probe sequence wrapped around the table end and an element was moved
+     * from the beginning of the table. Such elements are remembered and returned after the traversal.
+     *
+     * @return an iterator over the elements of this set
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private int expectedModCount = modCount;
+            private int index = elements.length;
+            private int remaining = size;
+            private int lastReturned = -1;
+            private Object lastReturnedWrapped;
+            private List<Object> wrappedElements;
+
+            @Override
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public T next() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (!hasNext()) throw new NoSuchElementException();
+                remaining--;
+                while (--index >= 0) {
+                    if (elements[index] != null) {
+                        lastReturned = index;
+                        return (T) elements[index];
+                    }
+                }
+                lastReturned = -1;
+                lastReturnedWrapped = wrappedElements.get(-index - 1);
+                return (T) lastReturnedWrapped;
+            }
+
+            @Override
+            public void remove() {
+                if (modCount != expectedModCount) throw new ConcurrentModificationException();
+                if (lastReturned >= 0) {
+                    if (wrappedElements == null) {
+                        wrappedElements = new ArrayList<>();
+                    }
+                    shiftBackFrom(lastReturned, wrappedElements);
+                    size--;
+                    modCount++;
+                    lastReturned = -1;
+                } else if (lastReturnedWrapped != null) {
+                    OpenAddressingHashSet.this.remove(lastReturnedWrapped);
+                    lastReturnedWrapped = null;
+                } else {
+                    throw new IllegalStateException();
+                }
+                expectedModCount = modCount;
+            }
+        };
+    }
+}
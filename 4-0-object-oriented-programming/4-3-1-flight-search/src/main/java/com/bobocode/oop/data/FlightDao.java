@@ -1,35 +1,503 @@
 package com.bobocode.oop.data;
 
+import com.bobocode.cs.OpenAddressingHashSet;
+
+import java.io.Closeable;
+import java.nio.file.Path;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * {@link FlightDao} represents a Data Access Object (DAO) for flights. The implementation is simplified, so it just
- * uses {@link HashSet} to store flight numbers.
+ * uses a {@link Set} to store flight numbers. By default it is a {@link HashSet}, but any other set implementation
+ * (e.g. a more compact {@link OpenAddressingHashSet}) can be provided via constructor.
+ * <p>
+ * Every registered flight number is also appended to a {@link FlightLog} and added to a {@link TrigramIndex}, which
+ * allows to find flight numbers by substring without scanning the whole set, and to a {@link PrefixTrie}, which allows
+ * to find flight numbers by prefix in sorted order.
+ * <p>
+ * The storage can be split into several {@link FlightPartition}s by the hash of a flight number. Each partition has its
+ * own set, log and indexes, so a search runs over all partitions in parallel on the common
+ * {@link java.util.concurrent.ForkJoinPool} and the results are merged. Flight numbers found by substring are ordered
+ * by partition, and by registration time within a partition.
+ * <p>
+ * This class is thread-safe. Registrations are serialized per partition, since the set does not have to be
+ * thread-safe, while all read methods are lock-free. A read method takes the current log size of a partition as a
+ * snapshot and never returns a flight of that partition registered after it, so searching while other threads
+ * register flights always gives a consistent result.
  * <p>
- * todo: 1. Implement a method {@link FlightDao#register(String)} that store new flight number into the set
- * todo: 2. Implement a method {@link FlightDao#findAll()} that returns a set of all flight numbers
+ * A DAO created by {@link FlightDao#packed(int)} stores flight numbers in {@link PackedFlightPartition}s instead. They
+ * keep flight numbers as bytes in a shared array and have no indexes, which takes several times less memory, but a
+ * search has to scan all flight numbers. It is meant for registries of millions of flights that are rarely searched.
+ * <p>
+ * A DAO created by {@link FlightDao#open(Path)} is persistent: every registered flight number is also appended to a
+ * {@link FlightLogFile}, which is memory-mapped and replayed on the next start, so the registry survives restarts.
+ * Replaying rebuilds the set and indexes, so the start takes time proportional to the number of flights. Persistent
+ * DAOs do not accept empty flight numbers, so their logs can also be opened by {@link FlightDao#openMapped(Path)}.
+ * <p>
+ * A DAO created by {@link FlightDao#openMapped(Path)} keeps flight numbers only on disk, in a
+ * {@link MappedFlightPartition}. Its lookup table is a memory-mapped file as well, so a start just maps both files and
+ * does not depend on the number of flights. Like a packed DAO, it has no search indexes.
  */
-public class FlightDao {
-    private final Set<String> flights = new HashSet<>();
+public class FlightDao implements Closeable {
+    private final FlightPartition[] partitions;
+    private final FlightLogFile logFile;
+
+    /**
+     * Creates a DAO that stores flight numbers in a {@link HashSet}
+     */
+    public FlightDao() {
+        this(new HashSet<>());
+    }
+
+    /**
+     * Creates a DAO that stores flight numbers in a provided set. The set is accessed only while registering a flight,
+     * so it does not have to be thread-safe. Flight numbers are added to it only by the DAO, which also indexes them,
+     * so the set must be empty.
+     *
+     * @param flights an empty set used as a flight numbers storage
+     * @throws IllegalArgumentException if the set is not empty
+     */
+    public FlightDao(Set<String> flights) {
+        this(new FlightPartition[]{new IndexedFlightPartition(Objects.requireNonNull(flights))}, null);
+    }
+
+    /**
+     * Creates a DAO that splits flight numbers into a provided number of partitions, each stored in its own set
+     *
+     * @param partitionCount a number of partitions
+     * @param storageFactory a factory of empty sets used as flight numbers storages, one per partition
+     * @throws IllegalArgumentException if the number of partitions is not positive, or a set is not empty
+     */
+    public FlightDao(int partitionCount, Supplier<Set<String>> storageFactory) {
+        this(createPartitions(partitionCount, storageFactory), null);
+    }
+
+    private FlightDao(FlightPartition[] partitions, FlightLogFile logFile) {
+        this.partitions = partitions;
+        this.logFile = logFile;
+    }
+
+    private static FlightPartition[] createPartitions(int partitionCount, Supplier<Set<String>> storageFactory) {
+        if (partitionCount < 1) throw new IllegalArgumentException("Number of partitions must be positive: " + partitionCount);
+        FlightPartition[] partitions = new FlightPartition[partitionCount];
+        for (int i = 0; i < partitionCount; i++) {
+            partitions[i] = new IndexedFlightPartition(Objects.requireNonNull(storageFactory.get()));
+        }
+        return partitions;
+    }
+
+    private static FlightPartition[] createPackedPartitions(int partitionCount) {
+        if (partitionCount < 1) throw new IllegalArgumentException("Number of partitions must be positive: " + partitionCount);
+        FlightPartition[] partitions = new FlightPartition[partitionCount];
+        Arrays.setAll(partitions, i -> new PackedFlightPartition());
+        return partitions;
+    }
+
+    /**
+     * Creates a DAO that packs flight numbers into bytes instead of storing them as strings, and splits them into a
+     * provided number of partitions. Only flight numbers of ISO-8859-1 chars (e.g. ASCII) can be registered.
+     *
+     * @param partitionCount a number of partitions
+     * @return a memory-efficient DAO
+     * @throws IllegalArgumentException if the number of partitions is not positive
+     */
+    public static FlightDao packed(int partitionCount) {
+        return new FlightDao(createPackedPartitions(partitionCount), null);
+    }
+
+    /**
+     * Opens a persistent DAO that stores flight numbers in a {@link HashSet} and appends them to a provided file.
+     * Flight numbers already stored in the file are loaded first.
+     *
+     * @param file a file used as a flight numbers log, it is created if it does not exist
+     * @return a persistent DAO
+     * @throws FlightDaoException if the file cannot be read
+     */
+    public static FlightDao open(Path file) {
+        return open(file, new HashSet<>());
+    }
+
+    /**
+     * Opens a persistent DAO that stores flight numbers in a provided set and appends them to a provided file.
+     * Flight numbers already stored in the file are loaded first.
+     *
+     * @param file    a file used as a flight numbers log, it is created if it does not exist
+     * @param flights an empty set used as a flight numbers storage
+     * @return a persistent DAO
+     * @throws FlightDaoException       if the file cannot be read
+     * @throws IllegalArgumentException if the set is not empty
+     */
+    public static FlightDao open(Path file, Set<String> flights) {
+        return open(file, new FlightPartition[]{new IndexedFlightPartition(Objects.requireNonNull(flights))});
+    }
+
+    /**
+     * Opens a persistent DAO that splits flight numbers into a provided number of partitions and appends them to a
+     * provided file. Flight numbers already stored in the file are loaded first.
+     *
+     * @param file           a file used as a flight numbers log, it is created if it does not exist
+     * @param partitionCount a number of partitions
+     * @param storageFactory a factory of empty sets used as flight numbers storages, one per partition
+     * @return a persistent DAO
+     * @throws FlightDaoException       if the file cannot be read
+     * @throws IllegalArgumentException if the number of partitions is not positive, or a set is not empty
+     */
+    public static FlightDao open(Path file, int partitionCount, Supplier<Set<String>> storageFactory) {
+        return open(file, createPartitions(partitionCount, storageFactory));
+    }
+
+    /**
+     * Opens a persistent DAO that packs flight numbers into bytes, see {@link FlightDao#packed(int)}, and appends them
+     * to a provided file. Flight numbers already stored in the file are loaded first.
+     *
+     * @param file           a file used as a flight numbers log, it is created if it does not exist
+     * @param partitionCount a number of partitions
+     * @return a persistent memory-efficient DAO
+     * @throws FlightDaoException if the file cannot be read
+     */
+    public static FlightDao openPacked(Path file, int partitionCount) {
+        return open(file, createPackedPartitions(partitionCount));
+    }
+
+    /**
+     * Opens a persistent DAO that keeps flight numbers only in a provided file and a lookup table in a file next to it,
+     * {@code <file>.index}, both mapped into memory, see {@link MappedFlightPartition}. Flight numbers already stored
+     * in the file are not loaded, so opening is fast for any number of flights, but a search scans the file. A file
+     * that has an empty flight number followed by other records is not opened.
+     *
+     * @param file a file used as a flight numbers log, it is created if it does not exist
+     * @return a persistent DAO that keeps flight numbers off the heap
+     * @throws FlightDaoException if the files cannot be read, or the log has an empty flight number
+     */
+    public static FlightDao openMapped(Path file) {
+        return new FlightDao(new FlightPartition[]{MappedFlightPartition.open(file)}, null);
+    }
+
+    private static FlightDao open(Path file, FlightPartition[] partitions) {
+        FlightLogFile logFile = FlightLogFile.open(file);
+        FlightDao flightDao = new FlightDao(partitions, logFile);
+        try {
+            logFile.replay(flightNumber -> flightDao.partitionOf(flightNumber).store(flightNumber));
+            Arrays.stream(partitions).forEach(FlightPartition::publish);
+        } catch (RuntimeException e) {
+            logFile.close();
+            throw e;
+        }
+        return flightDao;
+    }
+
+    private int partitionIndex(String flightNumber) {
+        int h = flightNumber.hashCode();
+        return Math.floorMod(h ^ (h >>> 16), partitions.length);
+    }
+
+    private FlightPartition partitionOf(String flightNumber) {
+        return partitions[partitionIndex(flightNumber)];
+    }
+
+    /**
+     * Returns partition indexes as a stream that is parallel if there is more than one partition
+     */
+    private IntStream partitionIndexes() {
+        IntStream indexes = IntStream.range(0, partitions.length);
+        return partitions.length > 1 ? indexes.parallel() : indexes;
+    }
 
     /**
      * Stores a new flight number
      *
      * @param flightNumber a flight number to store
      * @return {@code true} if a flight number was stored, {@code false} otherwise
+     * @throws IllegalArgumentException if the flight number cannot be stored
      */
     public boolean register(String flightNumber) {
-        return flights.add(flightNumber);
+        Objects.requireNonNull(flightNumber);
+        FlightPartition partition = partitionOf(flightNumber);
+        partition.validate(flightNumber);
+        synchronized (partition) {
+            if (logFile != null) {
+                FlightLogFile.checkLength(flightNumber);
+                if (partition.contains(flightNumber)) {
+                    return false;
+                }
+                logFile.append(flightNumber);
+            }
+            boolean stored = partition.store(flightNumber);
+            partition.publish();
+            return stored;
+        }
+    }
+
+    /**
+     * Stores new flight numbers in one go. The batch is split by partitions, which are filled in parallel. Each
+     * partition acquires the lock only once, pre-sizes the storage for its part of the batch and makes all its new
+     * flights visible to readers at once. A persistent DAO also writes them with a single buffered append per
+     * partition.
+     *
+     * @param flightNumbers flight numbers to store
+     * @return a bit set where the bit {@code i} is set if the {@code i}-th flight number was stored, i.e. it was
+     * neither registered before nor repeated earlier in the batch
+     * @throws IllegalArgumentException if any of the flight numbers cannot be stored, then none of them is stored
+     */
+    public BitSet registerAll(Collection<String> flightNumbers) {
+        List<String> batch = List.copyOf(flightNumbers);
+        for (String flightNumber : batch) {
+            partitionOf(flightNumber).validate(flightNumber);
+            if (logFile != null) {
+                FlightLogFile.checkLength(flightNumber);
+            }
+        }
+        int[][] positions = positionsByPartition(batch);
+        List<int[]> registeredPositions = partitionIndexes()
+                .mapToObj(p -> registerAll(partitions[p], batch, positions[p]))
+                .collect(Collectors.toList());
+        BitSet registered = new BitSet(batch.size());
+        registeredPositions.forEach(partitionPositions -> Arrays.stream(partitionPositions).forEach(registered::set));
+        return registered;
     }
 
     /**
-     * Returns all stored flight numbers
+     * Stores new flight numbers in one go, see {@link FlightDao#registerAll(Collection)}
+     *
+     * @param flightNumbers flight numbers to store
+     * @return a bit set where the bit {@code i} is set if the {@code i}-th flight number was stored
+     */
+    public BitSet registerAll(Stream<String> flightNumbers) {
+        return registerAll(flightNumbers.collect(Collectors.toList()));
+    }
+
+    /**
+     * Groups batch positions by partitions, keeping their order within a partition
+     */
+    private int[][] positionsByPartition(List<String> batch) {
+        int[] partitionIndexes = new int[batch.size()];
+        int[] counts = new int[partitions.length];
+        for (int i = 0; i < batch.size(); i++) {
+            partitionIndexes[i] = partitionIndex(batch.get(i));
+            counts[partitionIndexes[i]]++;
+        }
+        int[][] positions = new int[partitions.length][];
+        for (int p = 0; p < partitions.length; p++) {
+            positions[p] = new int[counts[p]];
+            counts[p] = 0;
+        }
+        for (int i = 0; i < batch.size(); i++) {
+            int p = partitionIndexes[i];
+            positions[p][counts[p]++] = i;
+        }
+        return positions;
+    }
+
+    /**
+     * Stores a part of the batch in a partition and returns positions of the stored flight numbers. A persistent DAO
+     * finds new flight numbers and writes them to the file first, so the partition is left untouched if that fails.
+     */
+    private int[] registerAll(FlightPartition partition, List<String> batch, int[] positions) {
+        synchronized (partition) {
+            partition.ensureCapacity(positions.length);
+            int[] registered = new int[positions.length];
+            int registeredCount = 0;
+            if (logFile == null) {
+                for (int position : positions) {
+                    if (partition.store(batch.get(position))) {
+                        registered[registeredCount++] = position;
+                    }
+                }
+            } else {
+                Set<String> newFlights = new LinkedHashSet<>();
+                for (int position : positions) {
+                    String flightNumber = batch.get(position);
+                    if (!partition.contains(flightNumber) && newFlights.add(flightNumber)) {
+                        registered[registeredCount++] = position;
+                    }
+                }
+                logFile.appendAll(List.copyOf(newFlights));
+                newFlights.forEach(partition::store);
+            }
+            partition.publish();
+            return Arrays.copyOf(registered, registeredCount);
+        }
+    }
+
+    /**
+     * Returns all stored flight numbers as an unmodifiable snapshot, which is not affected by later registrations
      *
      * @return a set of flight numbers
      */
     public Set<String> findAll() {
-        return flights;
+        if (partitions.length == 1) {
+            return partitions[0].findAll();
+        }
+        List<Set<String>> snapshots = Arrays.stream(partitions)
+                .map(FlightPartition::findAll)
+                .collect(Collectors.toList());
+        int size = snapshots.stream().mapToInt(Set::size).sum();
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return snapshots.stream().flatMap(Set::stream).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && snapshots.get(partitionIndex((String) o)).contains(o);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Returns all stored flight numbers that contain a provided query. Partitions are searched in parallel.
+     *
+     * @param query a search query
+     * @return a list of found flight numbers
+     */
+    public List<String> findAllContaining(String query) {
+        Objects.requireNonNull(query);
+        return partitionIndexes()
+                .mapToObj(p -> partitions[p].streamAllContaining(query).collect(Collectors.toList()))
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a lazy stream of stored flight numbers that contain a provided query. Flight numbers are matched while
+     * the stream is consumed, partition by partition, so taking only a few of them costs less than
+     * {@link FlightDao#findAllContaining(String)}. Flights registered after the stream reaches a partition are not
+     * included.
+     *
+     * @param query a search query
+     * @return a stream of found flight numbers
+     */
+    public Stream<String> streamAllContaining(String query) {
+        Objects.requireNonNull(query);
+        return Arrays.stream(partitions)
+                .flatMap(partition -> partition.streamAllContaining(query));
+    }
+
+    /**
+     * Returns all stored flight numbers that start with a provided prefix, in sorted order
+     *
+     * @param prefix a prefix of flight numbers
+     * @return a sorted list of found flight numbers
+     */
+    public List<String> findAllStartingWith(String prefix) {
+        return findAllStartingWith(prefix, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Returns at most {@code limit} stored flight numbers that start with a provided prefix, in sorted order.
+     * Partitions are searched in parallel and their sorted results are merged.
+     *
+     * @param prefix a prefix of flight numbers
+     * @param limit  a maximum number of flight numbers to return
+     * @return a sorted list of found flight numbers
+     * @throws IllegalArgumentException if the limit is negative
+     */
+    public List<String> findAllStartingWith(String prefix, int limit) {
+        Objects.requireNonNull(prefix);
+        if (limit < 0) throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        if (partitions.length == 1) {
+            return partitions[0].findAllStartingWith(prefix, limit);
+        }
+        List<List<String>> sortedLists = partitionIndexes()
+                .mapToObj(p -> partitions[p].findAllStartingWith(prefix, limit))
+                .collect(Collectors.toList());
+        return mergeSorted(sortedLists, limit);
+    }
+
+    /**
+     * Merges sorted lists of flight numbers into one sorted list of at most {@code limit} elements
+     */
+    private static List<String> mergeSorted(List<List<String>> sortedLists, int limit) {
+        List<String> merged = new ArrayList<>();
+        PriorityQueue<Cursor> cursors = new PriorityQueue<>();
+        for (List<String> sortedList : sortedLists) {
+            if (!sortedList.isEmpty()) {
+                cursors.add(new Cursor(sortedList));
+            }
+        }
+        while (!cursors.isEmpty() && merged.size() < limit) {
+            Cursor cursor = cursors.poll();
+            merged.add(cursor.current());
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        return merged;
     }
 
+    /**
+     * A position in a sorted list of flight numbers, ordered by the flight number it points to
+     */
+    private static class Cursor implements Comparable<Cursor> {
+        private final List<String> sortedList;
+        private int index;
+
+        Cursor(List<String> sortedList) {
+            this.sortedList = sortedList;
+        }
+
+        String current() {
+            return sortedList.get(index);
+        }
+
+        boolean advance() {
+            return ++index < sortedList.size();
+        }
+
+        @Override
+        public int compareTo(Cursor other) {
+            return current().compareTo(other.current());
+        }
+    }
+
+    /**
+     * Forces all registered flight numbers to be written to the storage device. Does nothing if the DAO is not
+     * persistent.
+     */
+    public void flush() {
+        if (logFile != null) {
+            logFile.flush();
+        }
+        for (FlightPartition partition : partitions) {
+            synchronized (partition) {
+                partition.flush();
+            }
+        }
+    }
+
+    /**
+     * Closes the flight numbers files. Does nothing if the DAO is not persistent.
+     */
+    @Override
+    public void close() {
+        if (logFile != null) {
+            logFile.close();
+        }
+        for (FlightPartition partition : partitions) {
+            synchronized (partition) {
+                partition.close();
+            }
+        }
+    }
 }
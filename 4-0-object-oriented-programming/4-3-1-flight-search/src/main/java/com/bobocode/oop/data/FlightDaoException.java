@@ -0,0 +1,11 @@
+package com.bobocode.oop.data;
+
+public class FlightDaoException extends RuntimeException {
+    public FlightDaoException(String message) {
+        super(message);
+    }
+
+    public FlightDaoException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
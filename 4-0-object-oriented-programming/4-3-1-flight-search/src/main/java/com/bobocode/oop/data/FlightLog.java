@@ -0,0 +1,114 @@
+package com.bobocode.oop.data;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * {@link FlightLog} is an append-only array of registered flight numbers, where the position of a flight number is its
+ * id. It is written by a single thread at a time and read without locks.
+ * <p>
+ * A new flight number becomes visible only after {@link FlightLog#publish()} updates {@link FlightLog#size}, so a
+ * whole batch of flight numbers can be made visible at once. Since it is a volatile field, a reader that got size
+ * {@code n} is guaranteed to see the first {@code n} flight numbers, as well as everything that writer did before
+ * publishing them (e.g. updating indexes). That makes {@code n} a consistent snapshot of the whole registry.
+ */
+class FlightLog {
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private volatile String[] flights = new String[DEFAULT_CAPACITY];
+    private volatile int size;
+    private int pendingSize;
+
+    /**
+     * Appends a new flight number, which is not visible to readers until {@link FlightLog#publish()} is called.
+     * Must be called by one writer at a time.
+     *
+     * @param flightNumber a flight number to append
+     */
+    void add(String flightNumber) {
+        ensureCapacity(pendingSize + 1);
+        flights[pendingSize++] = flightNumber;
+    }
+
+    /**
+     * Makes sure that the log can hold a provided number of flight numbers without growing. Must be called by one
+     * writer at a time.
+     *
+     * @param capacity a required capacity
+     */
+    void ensureCapacity(int capacity) {
+        String[] current = flights;
+        if (capacity > current.length) {
+            flights = Arrays.copyOf(current, Math.max(capacity, current.length << 1));
+        }
+    }
+
+    /**
+     * Makes all appended flight numbers visible to readers
+     */
+    void publish() {
+        size = pendingSize;
+    }
+
+    /**
+     * @return the id the next appended flight number gets
+     */
+    int nextId() {
+        return pendingSize;
+    }
+
+    /**
+     * @return the number of visible flight numbers
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Returns a flight number by its id. The id must be less than a previously read {@link FlightLog#size()}.
+     *
+     * @param id a flight id
+     * @return a flight number
+     */
+    String get(int id) {
+        return flights[id];
+    }
+
+    /**
+     * Returns an unmodifiable set view of the first {@code snapshotSize} flight numbers. It is not affected by
+     * later registrations, so it can be iterated while other threads register new flights.
+     *
+     * @param snapshotSize a previously read {@link FlightLog#size()}
+     * @return a set of flight numbers
+     */
+    Set<String> snapshot(int snapshotSize) {
+        String[] snapshotFlights = flights;
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<>() {
+                    private int index;
+
+                    @Override
+                    public boolean hasNext() {
+                        return index < snapshotSize;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return snapshotFlights[index++];
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return snapshotSize;
+            }
+        };
+    }
+}
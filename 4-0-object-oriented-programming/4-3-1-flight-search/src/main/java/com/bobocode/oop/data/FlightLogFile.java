@@ -0,0 +1,190 @@
+package com.bobocode.oop.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * {@link FlightLogFile} is an append-only file of registered flight numbers. Each record is a two-byte unsigned
+ * length followed by the UTF-8 bytes of a flight number.
+ * <p>
+ * Existing records are read by mapping the file into memory with {@link FileChannel#map}, so no stream or reader
+ * buffers are involved and the OS page cache is used directly. Files that do not fit into one mapping are mapped in
+ * consecutive windows. An incomplete record at the end of the file (e.g. after a crash during a write) is discarded.
+ */
+class FlightLogFile implements Closeable {
+    private static final int MAX_RECORD_LENGTH = 0xFFFF;
+    static final int LENGTH_BYTES = Short.BYTES;
+    private static final long MAX_WINDOW_SIZE = Integer.MAX_VALUE;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final Path path;
+    private final FileChannel channel;
+
+    private FlightLogFile(Path path, FileChannel channel) {
+        this.path = path;
+        this.channel = channel;
+    }
+
+    /**
+     * Opens a log file, creating it if it does not exist
+     *
+     * @param path a path to the log file
+     * @return an opened log file
+     */
+    static FlightLogFile open(Path path) {
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return new FlightLogFile(path, channel);
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot open flight log file " + path, e);
+        }
+    }
+
+    /**
+     * Reads all stored flight numbers in the order they were appended and positions the file for new appends right
+     * after the last complete record
+     *
+     * @param consumer a consumer of stored flight numbers
+     */
+    void replay(Consumer<String> consumer) {
+        try {
+            long fileSize = channel.size();
+            long position = 0;
+            while (position < fileSize) {
+                long windowSize = Math.min(MAX_WINDOW_SIZE, fileSize - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, windowSize);
+                int consumed = replayWindow(window, consumer);
+                if (consumed == 0) {
+                    break; // an incomplete record at the end of the file
+                }
+                position += consumed;
+            }
+            channel.truncate(position);
+            channel.position(position);
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot read flight log file " + path, e);
+        }
+    }
+
+    /**
+     * Reads all complete records of a window and returns the number of bytes they take
+     */
+    private static int replayWindow(ByteBuffer window, Consumer<String> consumer) {
+        byte[] bytes = new byte[MAX_RECORD_LENGTH];
+        while (window.remaining() >= LENGTH_BYTES) {
+            int recordStart = window.position();
+            int length = Short.toUnsignedInt(window.getShort());
+            if (window.remaining() < length) {
+                window.position(recordStart);
+                break;
+            }
+            window.get(bytes, 0, length);
+            consumer.accept(new String(bytes, 0, length, StandardCharsets.UTF_8));
+        }
+        return window.position();
+    }
+
+    /**
+     * Appends a flight number to the end of the file
+     *
+     * @param flightNumber a flight number to append
+     */
+    synchronized void append(String flightNumber) {
+        appendAll(List.of(flightNumber));
+    }
+
+    /**
+     * Appends flight numbers to the end of the file, writing them in large chunks. Records of one call are never
+     * interleaved with records appended by other threads. If a write fails, the file is truncated back to its length
+     * before the call, so no part of the batch is left in it.
+     *
+     * @param flightNumbers flight numbers to append
+     */
+    synchronized void appendAll(List<String> flightNumbers) {
+        ByteBuffer buffer = ByteBuffer.allocate(Math.min(WRITE_BUFFER_SIZE, flightNumbers.size() * 16));
+        long committedLength;
+        try {
+            committedLength = channel.position();
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot write to flight log file " + path, e);
+        }
+        try {
+            for (String flightNumber : flightNumbers) {
+                byte[] bytes = flightNumber.getBytes(StandardCharsets.UTF_8);
+                if (LENGTH_BYTES + bytes.length > buffer.remaining()) {
+                    write(buffer);
+                    if (LENGTH_BYTES + bytes.length > buffer.capacity()) {
+                        buffer = ByteBuffer.allocate(LENGTH_BYTES + bytes.length);
+                    }
+                }
+                buffer.putShort((short) bytes.length).put(bytes);
+            }
+            write(buffer);
+        } catch (IOException e) {
+            rollBack(committedLength, e);
+            throw new FlightDaoException("Cannot write to flight log file " + path, e);
+        }
+    }
+
+    private void rollBack(long committedLength, IOException failure) {
+        try {
+            channel.truncate(committedLength);
+            channel.position(committedLength);
+        } catch (IOException e) {
+            failure.addSuppressed(e);
+        }
+    }
+
+    private void write(ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Checks that a flight number can be stored in a record. Empty flight numbers are not stored, because a zero
+     * length marks the end of records in a {@link MappedFlightPartition} log.
+     *
+     * @param flightNumber a flight number to check
+     * @throws IllegalArgumentException if the flight number is empty or too long
+     */
+    static void checkLength(String flightNumber) {
+        if (flightNumber.isEmpty()) throw new IllegalArgumentException("Flight number cannot be empty");
+        // the UTF-8 encoding of a char takes at most three bytes
+        if (flightNumber.length() * 3 > MAX_RECORD_LENGTH
+                && flightNumber.getBytes(StandardCharsets.UTF_8).length > MAX_RECORD_LENGTH) {
+            throw new IllegalArgumentException("Flight number is too long to be stored: " + flightNumber.length());
+        }
+    }
+
+    /**
+     * Forces all appended records to be written to the storage device
+     */
+    synchronized void flush() {
+        try {
+            channel.force(false);
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot flush flight log file " + path, e);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot close flight log file " + path, e);
+        }
+    }
+}
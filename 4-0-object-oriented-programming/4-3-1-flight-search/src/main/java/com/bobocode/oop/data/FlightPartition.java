@@ -0,0 +1,66 @@
+package com.bobocode.oop.data;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * {@link FlightPartition} is one shard of a {@link FlightDao}. It stores a subset of flight numbers and answers search
+ * queries over them.
+ * <p>
+ * Writers must hold the partition monitor ({@code synchronized (partition)}), so registrations that go to different
+ * partitions do not block each other. Stored flight numbers become visible to readers only after
+ * {@link FlightPartition#publish()} is called. Readers do not lock, they search up to the last published state.
+ */
+interface FlightPartition {
+
+    /**
+     * Checks that a flight number can be stored in this partition, before anything is written
+     *
+     * @param flightNumber a flight number to check
+     * @throws IllegalArgumentException if the flight number cannot be stored
+     */
+    default void validate(String flightNumber) {
+    }
+
+    boolean contains(String flightNumber);
+
+    /**
+     * Adds a flight number to the partition. It becomes visible to readers only after
+     * {@link FlightPartition#publish()} is called.
+     *
+     * @param flightNumber a flight number to store
+     * @return {@code true} if a flight number was stored, {@code false} if it is already stored
+     */
+    boolean store(String flightNumber);
+
+    /**
+     * Makes all stored flight numbers visible to readers
+     */
+    void publish();
+
+    /**
+     * Makes sure that a provided number of new flight numbers can be stored without growing the storage
+     *
+     * @param batchSize a number of new flight numbers
+     */
+    void ensureCapacity(int batchSize);
+
+    Set<String> findAll();
+
+    Stream<String> streamAllContaining(String query);
+
+    List<String> findAllStartingWith(String prefix, int limit);
+
+    /**
+     * Forces stored flight numbers to be written to the storage device. Does nothing if the partition is kept in memory.
+     */
+    default void flush() {
+    }
+
+    /**
+     * Releases files of the partition. Does nothing if the partition is kept in memory.
+     */
+    default void close() {
+    }
+}
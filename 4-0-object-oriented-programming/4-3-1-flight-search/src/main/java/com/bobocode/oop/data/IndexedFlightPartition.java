@@ -0,0 +1,69 @@
+package com.bobocode.oop.data;
+
+import com.bobocode.cs.OpenAddressingHashSet;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+/**
+ * {@link IndexedFlightPartition} is a {@link FlightPartition} optimized for search speed. It stores its flight numbers
+ * in a {@link Set}, appends them to its own {@link FlightLog} and keeps its own {@link TrigramIndex} and
+ * {@link PrefixTrie}. Readers search up to the current log size of the partition.
+ */
+class IndexedFlightPartition implements FlightPartition {
+    private final Set<String> flights;
+    private final FlightLog flightLog = new FlightLog();
+    private final TrigramIndex trigramIndex = new TrigramIndex(flightLog);
+    private final PrefixTrie prefixTrie = new PrefixTrie();
+
+    IndexedFlightPartition(Set<String> flights) {
+        if (!flights.isEmpty()) throw new IllegalArgumentException("Flight numbers storage must be empty");
+        this.flights = flights;
+    }
+
+    @Override
+    public boolean contains(String flightNumber) {
+        return flights.contains(flightNumber);
+    }
+
+    @Override
+    public boolean store(String flightNumber) {
+        if (flights.add(flightNumber)) {
+            int id = flightLog.nextId();
+            trigramIndex.add(flightNumber, id);
+            prefixTrie.add(flightNumber, id);
+            flightLog.add(flightNumber);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void publish() {
+        flightLog.publish();
+    }
+
+    @Override
+    public void ensureCapacity(int batchSize) {
+        flightLog.ensureCapacity(flightLog.nextId() + batchSize);
+        if (flights instanceof OpenAddressingHashSet) {
+            ((OpenAddressingHashSet<String>) flights).ensureCapacity(flights.size() + batchSize);
+        }
+    }
+
+    @Override
+    public Set<String> findAll() {
+        return flightLog.snapshot(flightLog.size());
+    }
+
+    @Override
+    public Stream<String> streamAllContaining(String query) {
+        return trigramIndex.findAllContaining(query, flightLog.size());
+    }
+
+    @Override
+    public List<String> findAllStartingWith(String prefix, int limit) {
+        return prefixTrie.findAllStartingWith(prefix, limit, flightLog.size());
+    }
+}
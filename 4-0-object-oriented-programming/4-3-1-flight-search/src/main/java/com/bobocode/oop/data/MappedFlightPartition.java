@@ -0,0 +1,507 @@
+package com.bobocode.oop.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * {@link MappedFlightPartition} is a persistent {@link FlightPartition} that keeps flight numbers on disk instead of the
+ * heap. Flight numbers are stored as records of a {@link FlightLogFile} (a two-byte length and UTF-8 bytes), and an
+ * open addressing table of record offsets is kept in a second file next to it, {@code <log file>.index}. Both files
+ * are mapped into memory with {@link FileChannel#map}, so opening a partition does not read its flight numbers: the
+ * table is used as it is, and only records appended after the last index update (e.g. before a crash) are added to it.
+ * A missing or broken index file is rebuilt from the log once.
+ * <p>
+ * There are no search indexes, a search scans the mapped records and creates strings only for the found ones. A UTF-8
+ * encoded flight number contains (or starts with) the encoded query exactly when the flight number contains (or starts
+ * with) the query, so bytes are compared without decoding.
+ * <p>
+ * The log file is mapped beyond its end in growing chunks, so it ends with zero bytes while the partition is open,
+ * and it is truncated to its records on {@link MappedFlightPartition#close()}. A zero length marks the end of records,
+ * that is why empty flight numbers cannot be stored. A log that has an empty record followed by other bytes (e.g. one
+ * written by an older version of {@link FlightLogFile}) is not opened, so records after it are never cut off.
+ * <p>
+ * The index header is valid only while the table matches it. Before the table is rebuilt in place, the header is
+ * cleared and forced to the disk, so if the process stops during a rebuild, the index is rebuilt from the log on the
+ * next start.
+ * <p>
+ * Like other partitions, it is written by a single thread at a time and read without locks. A new flight number
+ * becomes visible to readers only after {@link MappedFlightPartition#publish()} updates the volatile
+ * {@link MappedFlightPartition#length}. The table is rebuilt in place, so {@code contains} of a
+ * {@link MappedFlightPartition#findAll()} snapshot is the only read that looks it up, while holding the monitor of the
+ * partition that {@link FlightDao} holds while registering. The partition must not be used after it is closed.
+ */
+class MappedFlightPartition implements FlightPartition {
+    private static final int INDEX_MAGIC = 0x464C5849;
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_HEADER_SIZE = 4 * Integer.BYTES; // magic, version, indexed log length, count
+    private static final int MIN_TABLE_SIZE = 1024;
+    private static final int MIN_LOG_CAPACITY = 64 * 1024;
+    private static final long MAX_LOG_SIZE = Integer.MAX_VALUE;
+
+    private final Path logPath;
+    private final FileChannel logChannel;
+    private final FileChannel indexChannel;
+    private volatile MappedByteBuffer log;
+    private volatile int length;
+    private volatile int count;
+    private MappedByteBuffer index;
+    private int tableSize;
+    private int pendingLength;
+    private int pendingCount;
+
+    private MappedFlightPartition(Path logPath, FileChannel logChannel, FileChannel indexChannel) {
+        this.logPath = logPath;
+        this.logChannel = logChannel;
+        this.indexChannel = indexChannel;
+    }
+
+    /**
+     * Opens a partition stored in a provided log file and its index file, creating them if they do not exist
+     *
+     * @param logPath a path to the log file
+     * @return an opened partition
+     * @throws FlightDaoException if the files cannot be opened or read
+     */
+    static MappedFlightPartition open(Path logPath) {
+        Path indexPath = logPath.resolveSibling(logPath.getFileName() + ".index");
+        FileChannel logChannel = null;
+        FileChannel indexChannel = null;
+        try {
+            logChannel = FileChannel.open(logPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            indexChannel = FileChannel.open(indexPath,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            MappedFlightPartition partition = new MappedFlightPartition(logPath, logChannel, indexChannel);
+            partition.load();
+            return partition;
+        } catch (IOException | RuntimeException e) {
+            closeQuietly(logChannel, e);
+            closeQuietly(indexChannel, e);
+            if (e instanceof IOException) {
+                throw new FlightDaoException("Cannot open flight log file " + logPath, e);
+            }
+            throw (RuntimeException) e;
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel, Exception failure) {
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                failure.addSuppressed(e);
+            }
+        }
+    }
+
+    /**
+     * Maps existing records and the index, adds records the index does not cover yet, and drops an incomplete record
+     * or zero bytes at the end of the log
+     */
+    private void load() throws IOException {
+        long logSize = logChannel.size();
+        if (logSize > MAX_LOG_SIZE) {
+            throw new FlightDaoException("Flight log file is too large to be mapped: " + logPath);
+        }
+        log = logChannel.map(FileChannel.MapMode.READ_ONLY, 0, logSize);
+        int indexedLength = loadIndex((int) logSize);
+        if (indexedLength < logSize) {
+            dropEntriesFrom(indexedLength);
+        }
+        pendingLength = indexedLength;
+        while (pendingLength + FlightLogFile.LENGTH_BYTES <= logSize) {
+            int recordLength = Short.toUnsignedInt(log.getShort(pendingLength));
+            if (recordLength == 0 || pendingLength + FlightLogFile.LENGTH_BYTES + recordLength > logSize) {
+                break;
+            }
+            ensureTableCapacity(1);
+            insert(pendingLength);
+            pendingLength += FlightLogFile.LENGTH_BYTES + recordLength;
+        }
+        if (pendingLength + FlightLogFile.LENGTH_BYTES <= logSize
+                && Short.toUnsignedInt(log.getShort(pendingLength)) == 0 && !isZeroFrom(pendingLength, logSize)) {
+            throw new FlightDaoException("Flight log file has an empty record at " + pendingLength + ": " + logPath);
+        }
+        // zero bytes after the last record must stay zero, so they are cut off before the log is mapped for writing
+        logChannel.truncate(pendingLength);
+        log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(pendingLength, MIN_LOG_CAPACITY));
+        publish();
+    }
+
+    private boolean isZeroFrom(int position, long logSize) {
+        for (int i = position; i < logSize; i++) {
+            if (log.get(i) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Maps the index file and returns the length of the log it covers. Creates an empty index if the file does not
+     * contain a valid one.
+     */
+    private int loadIndex(int logSize) throws IOException {
+        long indexSize = indexChannel.size();
+        long tableBytes = indexSize - INDEX_HEADER_SIZE;
+        if (tableBytes >= (long) MIN_TABLE_SIZE * Integer.BYTES && tableBytes <= Integer.MAX_VALUE
+                && tableBytes % Integer.BYTES == 0 && Long.bitCount(tableBytes / Integer.BYTES) == 1) {
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexSize);
+            int indexedLength = index.getInt(2 * Integer.BYTES);
+            if (index.getInt(0) == INDEX_MAGIC && index.getInt(Integer.BYTES) == INDEX_VERSION
+                    && indexedLength >= 0 && indexedLength <= logSize) {
+                tableSize = (int) (tableBytes / Integer.BYTES);
+                pendingCount = index.getInt(3 * Integer.BYTES);
+                return indexedLength;
+            }
+        }
+        indexChannel.truncate(0);
+        mapIndex(MIN_TABLE_SIZE);
+        pendingCount = 0;
+        return 0;
+    }
+
+    /**
+     * Removes table entries of records that start at or after a provided log position. They are left when a process
+     * stops after storing a flight number but before publishing it, and such records are inserted again when the log
+     * tail is replayed. Removing an entry would break probe sequences, so the remaining entries are inserted again.
+     */
+    private void dropEntriesFrom(int logPosition) {
+        invalidateIndex();
+        List<Integer> recordStarts = new ArrayList<>();
+        for (int slot = 0; slot < tableSize; slot++) {
+            int entry = index.getInt(entryPosition(slot));
+            if (entry != 0) {
+                if (entry - 1 < logPosition) {
+                    recordStarts.add(entry - 1);
+                }
+                index.putInt(entryPosition(slot), 0);
+            }
+        }
+        pendingCount = 0;
+        recordStarts.forEach(this::insert);
+    }
+
+    /**
+     * Maps an index file with a provided table size. The part of the file that is not written yet reads as zeros,
+     * i.e. empty slots.
+     */
+    private void mapIndex(int newTableSize) throws IOException {
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, INDEX_HEADER_SIZE + (long) newTableSize * Integer.BYTES);
+        tableSize = newTableSize;
+    }
+
+    /**
+     * Clears the index magic and forces it to the disk, so an index that is being rebuilt is never loaded. The next
+     * {@link MappedFlightPartition#publish()} makes it valid again.
+     */
+    private void invalidateIndex() {
+        index.putInt(0, 0);
+        index.force();
+    }
+
+    @Override
+    public void validate(String flightNumber) {
+        FlightLogFile.checkLength(flightNumber);
+    }
+
+    @Override
+    public boolean contains(String flightNumber) {
+        byte[] bytes = flightNumber.getBytes(StandardCharsets.UTF_8);
+        return index.getInt(entryPosition(findSlot(bytes))) != 0;
+    }
+
+    @Override
+    public boolean store(String flightNumber) {
+        byte[] bytes = flightNumber.getBytes(StandardCharsets.UTF_8);
+        if (index.getInt(entryPosition(findSlot(bytes))) != 0) {
+            return false;
+        }
+        int recordStart = pendingLength;
+        long recordEnd = (long) recordStart + FlightLogFile.LENGTH_BYTES + bytes.length;
+        if (recordEnd > MAX_LOG_SIZE) {
+            throw new FlightDaoException("Flight log file is full: " + logPath);
+        }
+        ensureLogCapacity((int) recordEnd);
+        ByteBuffer record = log.duplicate();
+        record.position(recordStart);
+        record.putShort((short) bytes.length).put(bytes);
+        pendingLength = (int) recordEnd;
+        ensureTableCapacity(1);
+        insert(recordStart);
+        return true;
+    }
+
+    @Override
+    public void publish() {
+        index.putInt(0, INDEX_MAGIC);
+        index.putInt(Integer.BYTES, INDEX_VERSION);
+        index.putInt(2 * Integer.BYTES, pendingLength);
+        index.putInt(3 * Integer.BYTES, pendingCount);
+        count = pendingCount;
+        length = pendingLength;
+    }
+
+    @Override
+    public void ensureCapacity(int batchSize) {
+        ensureTableCapacity(batchSize);
+    }
+
+    /**
+     * Remaps the log with a larger size if a record does not fit. The previous mapping stays valid for readers.
+     */
+    private void ensureLogCapacity(int requiredLength) {
+        if (requiredLength <= log.capacity()) {
+            return;
+        }
+        long newCapacity = Math.min(MAX_LOG_SIZE, Math.max(requiredLength, 2L * log.capacity()));
+        try {
+            log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, newCapacity);
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot grow flight log file " + logPath, e);
+        }
+    }
+
+    /**
+     * Doubles the table until it stays at most half full after a provided number of insertions, and inserts all
+     * records into a new table
+     */
+    private void ensureTableCapacity(int insertions) {
+        long required = 2L * (pendingCount + insertions);
+        if (required <= tableSize) {
+            return;
+        }
+        int newTableSize = tableSize;
+        while (newTableSize < required) {
+            newTableSize *= 2;
+        }
+        int[] recordStarts = new int[pendingCount];
+        int recordCount = 0;
+        for (int slot = 0; slot < tableSize; slot++) {
+            int entry = index.getInt(entryPosition(slot));
+            if (entry != 0) {
+                recordStarts[recordCount++] = entry - 1;
+            }
+        }
+        try {
+            mapIndex(newTableSize);
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot grow flight index file of " + logPath, e);
+        }
+        invalidateIndex();
+        for (int slot = 0; slot < newTableSize; slot++) {
+            index.putInt(entryPosition(slot), 0);
+        }
+        pendingCount = 0;
+        for (int i = 0; i < recordCount; i++) {
+            insert(recordStarts[i]);
+        }
+    }
+
+    private void insert(int recordStart) {
+        index.putInt(entryPosition(findSlot(log, recordStart)), recordStart + 1);
+        pendingCount++;
+    }
+
+    private static int entryPosition(int slot) {
+        return INDEX_HEADER_SIZE + slot * Integer.BYTES;
+    }
+
+    /**
+     * Returns the slot of a record with provided bytes, or the empty slot where it should be inserted
+     */
+    private int findSlot(byte[] bytes) {
+        return findSlot(ByteBuffer.wrap(bytes), 0, bytes.length);
+    }
+
+    /**
+     * Returns the slot of a record equal to a record that starts at a provided position of a buffer, or the empty slot
+     * where it should be inserted
+     */
+    private int findSlot(ByteBuffer buffer, int recordStart) {
+        return findSlot(buffer, recordStart + FlightLogFile.LENGTH_BYTES,
+                Short.toUnsignedInt(buffer.getShort(recordStart)));
+    }
+
+    private int findSlot(ByteBuffer buffer, int from, int byteCount) {
+        int mask = tableSize - 1;
+        int slot = hash(buffer, from, byteCount) & mask;
+        while (true) {
+            int entry = index.getInt(entryPosition(slot));
+            if (entry == 0 || recordEquals(entry - 1, buffer, from, byteCount)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private static int hash(ByteBuffer buffer, int from, int byteCount) {
+        int h = 1;
+        for (int i = from; i < from + byteCount; i++) {
+            h = 31 * h + buffer.get(i);
+        }
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private boolean recordEquals(int recordStart, ByteBuffer buffer, int from, int byteCount) {
+        if (Short.toUnsignedInt(log.getShort(recordStart)) != byteCount) {
+            return false;
+        }
+        int bytesStart = recordStart + FlightLogFile.LENGTH_BYTES;
+        for (int i = 0; i < byteCount; i++) {
+            if (log.get(bytesStart + i) != buffer.get(from + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Set<String> findAll() {
+        int snapshotLength = length;
+        int snapshotCount = count;
+        ByteBuffer snapshotLog = log;
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return scan(snapshotLog, snapshotLength, new byte[0], true).iterator();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && snapshotContains(snapshotLength, (String) o);
+            }
+
+            @Override
+            public int size() {
+                return snapshotCount;
+            }
+        };
+    }
+
+    /**
+     * Checks if a flight number is stored in a record that starts before a provided log length
+     */
+    private boolean snapshotContains(int snapshotLength, String flightNumber) {
+        byte[] bytes = flightNumber.getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            int entry = index.getInt(entryPosition(findSlot(bytes)));
+            return entry != 0 && entry - 1 < snapshotLength;
+        }
+    }
+
+    @Override
+    public Stream<String> streamAllContaining(String query) {
+        int snapshotLength = length;
+        return scan(log, snapshotLength, query.getBytes(StandardCharsets.UTF_8), false);
+    }
+
+    @Override
+    public List<String> findAllStartingWith(String prefix, int limit) {
+        int snapshotLength = length;
+        return scan(log, snapshotLength, prefix.getBytes(StandardCharsets.UTF_8), true)
+                .sorted()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Returns a lazy stream of flight numbers of records up to a provided length, whose bytes start with or contain a
+     * pattern
+     */
+    private static Stream<String> scan(ByteBuffer snapshotLog, int snapshotLength, byte[] pattern, boolean prefix) {
+        Spliterator<String> records = new Spliterators.AbstractSpliterator<>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int position;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super String> action) {
+                while (position < snapshotLength) {
+                    int recordStart = position;
+                    int recordLength = Short.toUnsignedInt(snapshotLog.getShort(recordStart));
+                    position += FlightLogFile.LENGTH_BYTES + recordLength;
+                    int bytesStart = recordStart + FlightLogFile.LENGTH_BYTES;
+                    if (prefix ? recordLength >= pattern.length && regionMatches(snapshotLog, bytesStart, pattern)
+                            : contains(snapshotLog, bytesStart, recordLength, pattern)) {
+                        byte[] bytes = new byte[recordLength];
+                        for (int i = 0; i < recordLength; i++) {
+                            bytes[i] = snapshotLog.get(bytesStart + i);
+                        }
+                        action.accept(new String(bytes, StandardCharsets.UTF_8));
+                        return true;
+                    }
+                }
+                return false;
+            }
+        };
+        return StreamSupport.stream(records, false);
+    }
+
+    private static boolean contains(ByteBuffer buffer, int from, int byteCount, byte[] pattern) {
+        for (int start = from; start <= from + byteCount - pattern.length; start++) {
+            if (regionMatches(buffer, start, pattern)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean regionMatches(ByteBuffer buffer, int from, byte[] pattern) {
+        for (int i = 0; i < pattern.length; i++) {
+            if (buffer.get(from + i) != pattern[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void flush() {
+        log.force();
+        index.force();
+    }
+
+    /**
+     * Flushes both files and truncates the log to its records. The mappings are dropped before the truncation, but
+     * they are released only when they are garbage collected. Windows does not allow to truncate a mapped file, so
+     * closing a partition is not supported there.
+     */
+    @Override
+    public void close() {
+        if (!logChannel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+            log = null;
+            index = null;
+            logChannel.truncate(pendingLength);
+        } catch (IOException e) {
+            throw new FlightDaoException("Cannot close flight log file " + logPath, e);
+        } finally {
+            try {
+                logChannel.close();
+                indexChannel.close();
+            } catch (IOException e) {
+                throw new FlightDaoException("Cannot close flight log file " + logPath, e);
+            }
+        }
+    }
+}
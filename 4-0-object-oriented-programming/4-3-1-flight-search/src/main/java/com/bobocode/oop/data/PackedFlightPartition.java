@@ -0,0 +1,309 @@
+package com.bobocode.oop.data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link PackedFlightPartition} is a {@link FlightPartition} optimized for memory. Flight numbers are not kept as
+ * {@link String} objects. Instead, their chars are packed one byte per char into a shared {@code byte[]} arena, and an
+ * offset table stores where each flight number starts, so the flight with id {@code i} takes bytes from
+ * {@code offsets[i]} to {@code offsets[i + 1]}. Duplicates are detected by an open addressing table of ids, which
+ * compares bytes in the arena. That makes a flight number cost its length plus an offset and a couple of table slots,
+ * instead of a string object, a set entry and index entries.
+ * <p>
+ * There are no indexes, so a search scans the packed bytes of all flights and creates strings only for the found ones.
+ * Only flight numbers of ISO-8859-1 chars (e.g. ASCII) can be stored.
+ * <p>
+ * Like {@link FlightLog}, the partition is written by a single thread at a time and read without locks. Arrays are
+ * replaced by larger copies when they grow, and a new flight number becomes visible only after
+ * {@link PackedFlightPartition#publish()} updates the volatile {@link PackedFlightPartition#size}. The table is volatile
+ * as well and is replaced only by a fully built copy, so a snapshot looks a flight number up in it and ignores ids
+ * registered after the snapshot was taken.
+ */
+class PackedFlightPartition implements FlightPartition {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int AVERAGE_LENGTH = 8;
+    private static final int MAX_CHAR = 0xFF;
+
+    private volatile byte[] bytes = new byte[DEFAULT_CAPACITY * AVERAGE_LENGTH];
+    private volatile int[] offsets = new int[DEFAULT_CAPACITY + 1];
+    private volatile int size;
+    private int pendingSize;
+    private volatile int[] table = new int[DEFAULT_CAPACITY * 2];
+
+    @Override
+    public void validate(String flightNumber) {
+        if (!isPackable(flightNumber)) {
+            throw new IllegalArgumentException("Flight number cannot be packed into bytes: " + flightNumber);
+        }
+    }
+
+    private static boolean isPackable(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) > MAX_CHAR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(String flightNumber) {
+        return isPackable(flightNumber) && table[slotOf(flightNumber)] != 0;
+    }
+
+    @Override
+    public boolean store(String flightNumber) {
+        validate(flightNumber);
+        int slot = slotOf(flightNumber);
+        if (table[slot] != 0) {
+            return false;
+        }
+        int id = pendingSize;
+        int start = offsets[id];
+        ensureCapacity(1, flightNumber.length());
+        byte[] currentBytes = bytes;
+        for (int i = 0; i < flightNumber.length(); i++) {
+            currentBytes[start + i] = (byte) flightNumber.charAt(i);
+        }
+        offsets[id + 1] = start + flightNumber.length();
+        pendingSize++;
+        if (pendingSize * 2 > table.length) {
+            rehash(table.length << 1);
+        } else {
+            table[slot] = id + 1;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the slot of a table that holds the id (plus one) of a flight number, or an empty slot where it can be
+     * inserted
+     */
+    private int slotOf(String flightNumber) {
+        int[] currentTable = table;
+        int mask = currentTable.length - 1;
+        int slot = hash(flightNumber) & mask;
+        for (int entry = currentTable[slot]; entry != 0; entry = currentTable[slot]) {
+            if (equals(bytes, offsets, entry - 1, flightNumber)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Checks if a flight number is one of the first {@code snapshotSize} flights. A later table contains all earlier
+     * ids in the same probe sequences, so the current table is used and newer ids are skipped.
+     */
+    private boolean snapshotContains(byte[] snapshotBytes, int[] snapshotOffsets, int snapshotSize,
+                                     String flightNumber) {
+        if (!isPackable(flightNumber)) {
+            return false;
+        }
+        int[] currentTable = table;
+        int mask = currentTable.length - 1;
+        int slot = hash(flightNumber) & mask;
+        for (int entry = currentTable[slot]; entry != 0; entry = currentTable[slot]) {
+            if (entry - 1 < snapshotSize && equals(snapshotBytes, snapshotOffsets, entry - 1, flightNumber)) {
+                return true;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return false;
+    }
+
+    private static int hash(String value) {
+        int h = value.hashCode();
+        return (h * 0x9E3779B9) ^ (h >>> 16);
+    }
+
+    /**
+     * Computes the same hash as {@link PackedFlightPartition#hash(String)} from packed bytes
+     */
+    private int hash(int id) {
+        int h = 0;
+        for (int i = offsets[id]; i < offsets[id + 1]; i++) {
+            h = 31 * h + (bytes[i] & MAX_CHAR);
+        }
+        return (h * 0x9E3779B9) ^ (h >>> 16);
+    }
+
+    private static boolean equals(byte[] packedBytes, int[] packedOffsets, int id, String flightNumber) {
+        int start = packedOffsets[id];
+        if (packedOffsets[id + 1] - start != flightNumber.length()) {
+            return false;
+        }
+        for (int i = 0; i < flightNumber.length(); i++) {
+            if ((packedBytes[start + i] & MAX_CHAR) != flightNumber.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < pendingSize; id++) {
+            int slot = hash(id) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    @Override
+    public void publish() {
+        size = pendingSize;
+    }
+
+    @Override
+    public void ensureCapacity(int batchSize) {
+        ensureCapacity(batchSize, batchSize * AVERAGE_LENGTH);
+        int tableCapacity = table.length;
+        while ((pendingSize + batchSize) * 2 > tableCapacity) {
+            tableCapacity <<= 1;
+        }
+        if (tableCapacity > table.length) {
+            rehash(tableCapacity);
+        }
+    }
+
+    /**
+     * Makes sure that the offset table and the arena can take a provided number of flights and bytes
+     */
+    private void ensureCapacity(int flightCount, int byteCount) {
+        int[] currentOffsets = offsets;
+        if (pendingSize + flightCount + 1 > currentOffsets.length) {
+            offsets = Arrays.copyOf(currentOffsets, Math.max(pendingSize + flightCount + 1, currentOffsets.length << 1));
+        }
+        byte[] currentBytes = bytes;
+        int requiredBytes = offsets[pendingSize] + byteCount;
+        if (requiredBytes < 0) throw new IllegalStateException("Partition cannot hold more than 2 GB of flight numbers");
+        if (requiredBytes > currentBytes.length) {
+            int newLength = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(requiredBytes, (long) currentBytes.length << 1));
+            bytes = Arrays.copyOf(currentBytes, newLength);
+        }
+    }
+
+    /**
+     * Creates a string from the packed bytes of a flight, which are ISO-8859-1 chars
+     */
+    private static String decode(byte[] snapshotBytes, int[] snapshotOffsets, int id) {
+        int start = snapshotOffsets[id];
+        return new String(snapshotBytes, start, snapshotOffsets[id + 1] - start, StandardCharsets.ISO_8859_1);
+    }
+
+    @Override
+    public Set<String> findAll() {
+        int snapshotSize = size;
+        byte[] snapshotBytes = bytes;
+        int[] snapshotOffsets = offsets;
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<>() {
+                    private int id;
+
+                    @Override
+                    public boolean hasNext() {
+                        return id < snapshotSize;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext()) throw new NoSuchElementException();
+                        return decode(snapshotBytes, snapshotOffsets, id++);
+                    }
+                };
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return o instanceof String && snapshotContains(snapshotBytes, snapshotOffsets, snapshotSize, (String) o);
+            }
+
+            @Override
+            public int size() {
+                return snapshotSize;
+            }
+        };
+    }
+
+    @Override
+    public Stream<String> streamAllContaining(String query) {
+        if (!isPackable(query)) {
+            return Stream.empty();
+        }
+        int snapshotSize = size;
+        byte[] snapshotBytes = bytes;
+        int[] snapshotOffsets = offsets;
+        byte[] packedQuery = pack(query);
+        return IntStream.range(0, snapshotSize)
+                .filter(id -> indexOf(snapshotBytes, snapshotOffsets[id], snapshotOffsets[id + 1], packedQuery) >= 0)
+                .mapToObj(id -> decode(snapshotBytes, snapshotOffsets, id));
+    }
+
+    @Override
+    public List<String> findAllStartingWith(String prefix, int limit) {
+        if (!isPackable(prefix) || limit == 0) {
+            return List.of();
+        }
+        int snapshotSize = size;
+        byte[] snapshotBytes = bytes;
+        int[] snapshotOffsets = offsets;
+        byte[] packedPrefix = pack(prefix);
+        List<String> found = new ArrayList<>();
+        for (int id = 0; id < snapshotSize; id++) {
+            int start = snapshotOffsets[id];
+            int end = snapshotOffsets[id + 1];
+            if (end - start >= packedPrefix.length && indexOf(snapshotBytes, start, start + packedPrefix.length, packedPrefix) == start) {
+                found.add(decode(snapshotBytes, snapshotOffsets, id));
+            }
+        }
+        found.sort(null);
+        return found.size() > limit ? found.subList(0, limit) : found;
+    }
+
+    /**
+     * Packs a string of ISO-8859-1 chars, see {@link PackedFlightPartition#isPackable(String)}, into bytes
+     */
+    private static byte[] pack(String value) {
+        return value.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Returns the position of the first occurrence of a pattern within {@code [from, to)} of an array, or -1
+     */
+    private static int indexOf(byte[] array, int from, int to, byte[] pattern) {
+        if (pattern.length == 0) {
+            return from;
+        }
+        byte first = pattern[0];
+        for (int i = from, last = to - pattern.length; i <= last; i++) {
+            if (array[i] != first) {
+                continue;
+            }
+            int j = 1;
+            while (j < pattern.length && array[i + j] == pattern[j]) {
+                j++;
+            }
+            if (j == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,179 @@
+package com.bobocode.oop.data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link PrefixTrie} is a compressed radix trie of flight numbers that allows to find all flight numbers starting with
+ * a given prefix in sorted order. Each node represents a string that is shared by all flight numbers below it, and
+ * chains of single-child nodes are merged into one edge.
+ * <p>
+ * Edge labels do not copy characters, they point into a region of an already stored flight number. Children are kept
+ * in an array sorted by the first label character, so an in-order traversal visits flight numbers in the
+ * {@link String#compareTo(String)} order, and a prefix query costs O(prefix length + k) where k is the result size.
+ * <p>
+ * The trie is updated by one writer at a time and read without locks. Reachable nodes are never changed in place:
+ * the writer publishes new children arrays and replaces split nodes with copies, so a reader always observes a
+ * consistent trie. Each flight number keeps its {@link FlightLog} id, which allows readers to skip flights that are
+ * not a part of their snapshot. The trie does not check for duplicates, that is the responsibility of the caller.
+ */
+class PrefixTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+
+    private final Node root = new Node("", 0, 0);
+
+    private static class Node {
+        final String source;
+        final int start;
+        final int end;
+        int id;
+        volatile String flightNumber;
+        volatile Node[] children = NO_CHILDREN;
+
+        Node(String source, int start, int end) {
+            this.source = source;
+            this.start = start;
+            this.end = end;
+        }
+
+        int labelLength() {
+            return end - start;
+        }
+
+        char labelCharAt(int index) {
+            return source.charAt(start + index);
+        }
+
+        int childIndex(Node[] children, char firstChar) {
+            int low = 0;
+            int high = children.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                char midChar = children[mid].labelCharAt(0);
+                if (midChar < firstChar) {
+                    low = mid + 1;
+                } else if (midChar > firstChar) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        void setFlight(String flightNumber, int id) {
+            this.id = id;
+            this.flightNumber = flightNumber; // volatile write publishes the id as well
+        }
+    }
+
+    /**
+     * Adds a new flight number to the trie. Must be called by one writer at a time.
+     *
+     * @param flightNumber a flight number to add
+     * @param id           the id the flight number gets in the {@link FlightLog}
+     */
+    void add(String flightNumber, int id) {
+        Node node = root;
+        int pos = 0;
+        while (pos < flightNumber.length()) {
+            Node[] children = node.children;
+            int index = node.childIndex(children, flightNumber.charAt(pos));
+            if (index < 0) {
+                Node leaf = new Node(flightNumber, pos, flightNumber.length());
+                leaf.setFlight(flightNumber, id);
+                node.children = insert(children, -(index + 1), leaf);
+                return;
+            }
+            Node child = children[index];
+            int common = commonPrefixLength(child, flightNumber, pos);
+            if (common < child.labelLength()) {
+                child = split(node, index, common);
+            }
+            node = child;
+            pos += common;
+        }
+        node.setFlight(flightNumber, id);
+    }
+
+    private static Node[] insert(Node[] children, int index, Node child) {
+        Node[] newChildren = new Node[children.length + 1];
+        System.arraycopy(children, 0, newChildren, 0, index);
+        newChildren[index] = child;
+        System.arraycopy(children, index, newChildren, index + 1, children.length - index);
+        return newChildren;
+    }
+
+    private static int commonPrefixLength(Node node, String s, int from) {
+        int max = Math.min(node.labelLength(), s.length() - from);
+        int i = 0;
+        while (i < max && node.labelCharAt(i) == s.charAt(from + i)) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Replaces a child node with a new node holding the first {@code length} characters of its label, which points to
+     * a copy of the child holding the rest of the label
+     */
+    private static Node split(Node parent, int childIndex, int length) {
+        Node child = parent.children[childIndex];
+        Node rest = new Node(child.source, child.start + length, child.end);
+        rest.children = child.children;
+        if (child.flightNumber != null) {
+            rest.setFlight(child.flightNumber, child.id);
+        }
+        Node middle = new Node(child.source, child.start, child.start + length);
+        middle.children = new Node[]{rest};
+
+        Node[] newChildren = parent.children.clone();
+        newChildren[childIndex] = middle;
+        parent.children = newChildren;
+        return middle;
+    }
+
+    /**
+     * Returns flight numbers that start with a provided prefix in sorted order, taking into account only the first
+     * {@code snapshotSize} flights of the log
+     *
+     * @param prefix       a prefix of flight numbers
+     * @param limit        a maximum number of flight numbers to return
+     * @param snapshotSize a previously read {@link FlightLog#size()}
+     * @return a sorted list of found flight numbers
+     */
+    List<String> findAllStartingWith(String prefix, int limit, int snapshotSize) {
+        Node node = root;
+        int pos = 0;
+        while (pos < prefix.length()) {
+            Node[] children = node.children;
+            int index = node.childIndex(children, prefix.charAt(pos));
+            if (index < 0) {
+                return List.of();
+            }
+            node = children[index];
+            int common = commonPrefixLength(node, prefix, pos);
+            if (common < node.labelLength() && pos + common < prefix.length()) {
+                return List.of();
+            }
+            pos += common;
+        }
+        List<String> found = new ArrayList<>(Math.min(limit, 16));
+        collect(node, found, limit, snapshotSize);
+        return found;
+    }
+
+    private static void collect(Node node, List<String> found, int limit, int snapshotSize) {
+        if (found.size() == limit) {
+            return;
+        }
+        String flightNumber = node.flightNumber;
+        if (flightNumber != null && node.id < snapshotSize) {
+            found.add(flightNumber);
+        }
+        Node[] children = node.children;
+        for (int i = 0; i < children.length && found.size() < limit; i++) {
+            collect(children[i], found, limit, snapshotSize);
+        }
+    }
+}
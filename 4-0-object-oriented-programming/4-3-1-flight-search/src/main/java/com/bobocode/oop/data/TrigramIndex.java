@@ -0,0 +1,151 @@
+package com.bobocode.oop.data;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * {@link TrigramIndex} is an inverted index that maps every three-character substring (trigram) of a flight number
+ * to the sorted list of ids of flights that contain it. A substring query of at least three characters is answered by
+ * intersecting the posting lists of its trigrams and verifying only the remaining candidates with
+ * {@link String#contains(CharSequence)}, instead of scanning every stored flight number.
+ * <p>
+ * Flight ids are positions in a {@link FlightLog}, so posting lists are filled in ascending order and can be
+ * intersected with a linear merge. Shorter queries cannot be narrowed down by trigrams and fall back to a full scan
+ * of the log. The index is updated by one writer at a time, while readers search without locks up to a snapshot size
+ * of the log, ignoring ids of flights that are still being registered.
+ */
+class TrigramIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final Map<Long, Postings> postings = new ConcurrentHashMap<>();
+    private final FlightLog flightLog;
+
+    /**
+     * A growable array of flight ids sorted in ascending order. A new id is written before the size is increased,
+     * so a reader that got the size always sees that many ids.
+     */
+    private static class Postings {
+        volatile int[] ids = new int[4];
+        volatile int size;
+
+        void add(int id) {
+            int[] current = ids;
+            if (size > 0 && current[size - 1] == id) {
+                return; // the same trigram occurs more than once in a flight number
+            }
+            if (size == current.length) {
+                current = Arrays.copyOf(current, size << 1);
+                ids = current;
+            }
+            current[size] = id;
+            size = size + 1;
+        }
+    }
+
+    TrigramIndex(FlightLog flightLog) {
+        this.flightLog = flightLog;
+    }
+
+    /**
+     * Adds a new flight number to the index. Must be called by one writer at a time.
+     *
+     * @param flightNumber a flight number to index
+     * @param id           the id the flight number gets in the {@link FlightLog}
+     */
+    void add(String flightNumber, int id) {
+        for (int i = 0; i + GRAM_LENGTH <= flightNumber.length(); i++) {
+            postings.computeIfAbsent(trigram(flightNumber, i), key -> new Postings()).add(id);
+        }
+    }
+
+    private static long trigram(String s, int from) {
+        return ((long) s.charAt(from) << 32) | ((long) s.charAt(from + 1) << 16) | s.charAt(from + 2);
+    }
+
+    /**
+     * Returns a lazy stream of flight numbers that contain a provided query among the first {@code snapshotSize}
+     * flights of the log, in the order they were added. Candidates are verified one by one while the stream is
+     * consumed, so a short-circuiting operation (e.g. {@link Stream#limit(long)}) stops the search early.
+     *
+     * @param query        a search query
+     * @param snapshotSize a previously read {@link FlightLog#size()}
+     * @return a stream of found flight numbers
+     */
+    Stream<String> findAllContaining(String query, int snapshotSize) {
+        IntStream candidates = query.length() < GRAM_LENGTH
+                ? IntStream.range(0, snapshotSize)
+                : IntStream.of(intersect(postingsOf(query, snapshotSize)));
+        return candidates.mapToObj(flightLog::get)
+                .filter(flightNumber -> flightNumber.contains(query));
+    }
+
+    /**
+     * Returns posting lists of all query trigrams trimmed to the snapshot size, shortest first. If at least one
+     * trigram is not indexed an empty list is returned, because no flight can contain the query.
+     */
+    private List<PostingsView> postingsOf(String query, int snapshotSize) {
+        List<PostingsView> queryPostings = new ArrayList<>();
+        for (int i = 0; i + GRAM_LENGTH <= query.length(); i++) {
+            Postings trigramPostings = postings.get(trigram(query, i));
+            if (trigramPostings == null) {
+                return List.of();
+            }
+            int size = trigramPostings.size; // must be read before ids
+            int[] ids = trigramPostings.ids;
+            queryPostings.add(new PostingsView(ids, upperBound(ids, size, snapshotSize)));
+        }
+        queryPostings.sort((a, b) -> Integer.compare(a.size, b.size));
+        return queryPostings;
+    }
+
+    /**
+     * A read-only view of the first {@code size} ids of a posting list
+     */
+    private static class PostingsView {
+        final int[] ids;
+        final int size;
+
+        PostingsView(int[] ids, int size) {
+            this.ids = ids;
+            this.size = size;
+        }
+    }
+
+    private static int[] intersect(List<PostingsView> queryPostings) {
+        if (queryPostings.isEmpty()) {
+            return new int[0];
+        }
+        PostingsView shortest = queryPostings.get(0);
+        int[] result = Arrays.copyOf(shortest.ids, shortest.size);
+        int resultSize = result.length;
+        for (int p = 1; p < queryPostings.size() && resultSize > 0; p++) {
+            PostingsView other = queryPostings.get(p);
+            int i = 0, j = 0, k = 0;
+            while (i < resultSize && j < other.size) {
+                if (result[i] < other.ids[j]) {
+                    i++;
+                } else if (result[i] > other.ids[j]) {
+                    j++;
+                } else {
+                    result[k++] = result[i++];
+                    j++;
+                }
+            }
+            resultSize = k;
+        }
+        return Arrays.copyOf(result, resultSize);
+    }
+
+    /**
+     * Returns the number of ids that are less than the snapshot size, which are at the beginning of a sorted array
+     */
+    private static int upperBound(int[] ids, int size, int snapshotSize) {
+        int index = Arrays.binarySearch(ids, 0, size, snapshotSize);
+        return index >= 0 ? index : -(index + 1);
+    }
+}
@@ -1,8 +1,11 @@
 package com.bobocode.oop.factory;
 
+import com.bobocode.cs.OpenAddressingHashSet;
 import com.bobocode.oop.data.FlightDao;
 import com.bobocode.oop.service.FlightService;
 
+import java.nio.file.Path;
+
 /**
  * {@link FlightServiceFactory} is used to create an instance of {@link FlightService}
  * <p>
@@ -16,6 +19,18 @@ public class FlightServiceFactory {
      * @return FlightService
      */
     public FlightService creteFlightService() {
-        return new FlightService(new FlightDao());
+        return new FlightService(new FlightDao(new OpenAddressingHashSet<>()));
+    }
+
+    /**
+     * Create a new instance of {@link FlightService} that keeps flight numbers in a provided file, so they are
+     * available after restart. Flight numbers stay in a memory-mapped file, see {@link FlightDao#openMapped(Path)},
+     * so the service starts quickly for any number of them. The service keeps the file open and must be closed.
+     *
+     * @param registryFile a file that stores registered flight numbers
+     * @return FlightService
+     */
+    public FlightService createPersistentFlightService(Path registryFile) {
+        return new FlightService(FlightDao.openMapped(registryFile));
     }
 }
@@ -2,21 +2,48 @@ package com.bobocode.oop.service;
 
 import com.bobocode.oop.data.FlightDao;
 
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * {@link FlightService} provides an API that allows to manage flight numbers
  * <p>
+ * Results of {@link FlightService#searchFlights(String)} are kept in a bounded {@link SearchCache}, since a small
+ * number of queries usually makes up most of the requests. Registering a flight invalidates only cached queries that
+ * match the new flight number.
+ * <p>
+ * A service owns its {@link FlightDao}, so closing the service closes the DAO and its files if it is persistent.
+ * <p>
  * todo: 1. Using {@link com.bobocode.oop.data.FlightDao} implement method {@link FlightService#registerFlight(String)}
  * todo: 2. Using {@link com.bobocode.oop.data.FlightDao} implement method {@link FlightService#searchFlights(String)}
  */
-public class FlightService {
+public class FlightService implements Closeable {
+
+    private static final int DEFAULT_CACHE_CAPACITY = 256;
 
     private final FlightDao flightDao;
+    private final SearchCache searchCache;
 
     public FlightService(FlightDao flightDao) {
+        this(flightDao, DEFAULT_CACHE_CAPACITY);
+    }
+
+    /**
+     * Creates a service with a search cache that holds results of at most {@code cacheCapacity} queries
+     *
+     * @param flightDao     a flight DAO
+     * @param cacheCapacity a maximum number of cached queries, {@code 0} disables caching
+     * @throws IllegalArgumentException if the cache capacity is negative
+     */
+    public FlightService(FlightDao flightDao, int cacheCapacity) {
         this.flightDao = flightDao;
+        this.searchCache = new SearchCache(cacheCapacity);
     }
 
     /**
@@ -26,18 +53,119 @@ public class FlightService {
      * @return {@code true} if a flight number was added, {@code false} otherwise
      */
     public boolean registerFlight(String flightNumber) {
-        return flightDao.register(flightNumber);
+        if (flightDao.register(flightNumber)) {
+            searchCache.invalidate(flightNumber);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Adds many flight numbers at once. It is much faster than calling {@link FlightService#registerFlight(String)}
+     * for each of them, e.g. when importing a schedule.
+     *
+     * @param flightNumbers flight numbers to add
+     * @return a bit set where the bit {@code i} is set if the {@code i}-th flight number was added
+     */
+    public BitSet registerAll(Collection<String> flightNumbers) {
+        return invalidateIfRegistered(flightDao.registerAll(flightNumbers));
     }
 
     /**
-     * Returns all flight numbers that contains a provided key.
+     * Adds many flight numbers at once, see {@link FlightService#registerAll(Collection)}
+     *
+     * @param flightNumbers flight numbers to add
+     * @return a bit set where the bit {@code i} is set if the {@code i}-th flight number was added
+     */
+    public BitSet registerAll(Stream<String> flightNumbers) {
+        return invalidateIfRegistered(flightDao.registerAll(flightNumbers));
+    }
+
+    private BitSet invalidateIfRegistered(BitSet registered) {
+        if (!registered.isEmpty()) {
+            searchCache.invalidateAll();
+        }
+        return registered;
+    }
+
+    /**
+     * Returns all flight numbers that contains a provided key. Results are cached, and each call returns a new copy of
+     * them, so the returned list can be modified by the caller.
      *
      * @param query a search query
      * @return a list of found flight numbers
      */
     public List<String> searchFlights(String query) {
-        return flightDao.findAll().stream()
-                .filter(s -> s.contains(query))
+        Objects.requireNonNull(query);
+        return new ArrayList<>(searchCache.get(query, flightDao::findAllContaining));
+    }
+
+    /**
+     * Returns one page of flight numbers that contains a provided key. Flight numbers are ordered by registration
+     * time, and the search stops as soon as the page is full.
+     *
+     * @param query  a search query
+     * @param offset a number of found flight numbers to skip
+     * @param limit  a maximum number of flight numbers to return
+     * @return a list of found flight numbers
+     * @throws IllegalArgumentException if the offset or the limit is negative
+     */
+    public List<String> searchFlights(String query, int offset, int limit) {
+        if (offset < 0) throw new IllegalArgumentException("Offset cannot be negative: " + offset);
+        if (limit < 0) throw new IllegalArgumentException("Limit cannot be negative: " + limit);
+        return flightDao.streamAllContaining(query)
+                .skip(offset)
+                .limit(limit)
                 .collect(Collectors.toList());
     }
+
+    /**
+     * Returns a lazy stream of flight numbers that contains a provided key, ordered by registration time. No list of
+     * results is created, flight numbers are found one by one while the stream is consumed.
+     *
+     * @param query a search query
+     * @return a stream of found flight numbers
+     */
+    public Stream<String> streamFlights(String query) {
+        return flightDao.streamAllContaining(query);
+    }
+
+    /**
+     * Returns all flight numbers that start with a provided prefix, in sorted order.
+     *
+     * @param prefix a prefix of flight numbers, e.g. an airline code
+     * @return a sorted list of found flight numbers
+     */
+    public List<String> searchFlightsByPrefix(String prefix) {
+        return flightDao.findAllStartingWith(prefix);
+    }
+
+    /**
+     * Returns at most {@code limit} flight numbers that start with a provided prefix, in sorted order. It is suitable
+     * for autocomplete, since only the first {@code limit} flight numbers are visited.
+     *
+     * @param prefix a prefix of flight numbers, e.g. an airline code
+     * @param limit  a maximum number of flight numbers to return
+     * @return a sorted list of found flight numbers
+     */
+    public List<String> searchFlightsByPrefix(String prefix, int limit) {
+        return flightDao.findAllStartingWith(prefix, limit);
+    }
+
+    /**
+     * Returns hit, miss, eviction and invalidation counts of the search cache
+     *
+     * @return search cache metrics
+     */
+    public SearchCacheStats getSearchCacheStats() {
+        return searchCache.getStats();
+    }
+
+    /**
+     * Closes the flight DAO. Does nothing if it is not persistent.
+     */
+    @Override
+    public void close() {
+        flightDao.close();
+    }
 }
@@ -0,0 +1,97 @@
+package com.bobocode.oop.service;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * {@link SearchCache} is a bounded least recently used (LRU) cache of flight search results keyed by query. It is
+ * based on a {@link LinkedHashMap} in access order, which evicts the eldest entry once the capacity is exceeded.
+ * <p>
+ * A new flight number can only change results of queries it contains, so {@link SearchCache#invalidate(String)}
+ * removes only those entries. Every invalidation also increments a version, and a result computed while the version
+ * changed is returned but not cached, since it could miss a flight registered in the meantime.
+ * <p>
+ * This class is thread-safe.
+ */
+class SearchCache {
+    private final int capacity;
+    private final Map<String, List<String>> results;
+    private long version;
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+    private long invalidationCount;
+
+    SearchCache(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("Cache capacity cannot be negative: " + capacity);
+        this.capacity = capacity;
+        this.results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<String>> eldest) {
+                if (size() > SearchCache.this.capacity) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns cached results of a query, or computes them using a provided search function
+     *
+     * @param query  a search query
+     * @param search a function that finds flight numbers by query
+     * @return an unmodifiable list of found flight numbers
+     */
+    List<String> get(String query, Function<String, List<String>> search) {
+        long searchVersion;
+        synchronized (this) {
+            List<String> cached = results.get(query);
+            if (cached != null) {
+                hitCount++;
+                return cached;
+            }
+            missCount++;
+            searchVersion = version;
+        }
+        List<String> found = List.copyOf(search.apply(query));
+        synchronized (this) {
+            if (version == searchVersion && capacity > 0) {
+                results.put(query, found);
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Removes cached results of all queries that a new flight number contains
+     *
+     * @param flightNumber a newly registered flight number
+     */
+    synchronized void invalidate(String flightNumber) {
+        version++;
+        for (Iterator<String> queries = results.keySet().iterator(); queries.hasNext(); ) {
+            if (flightNumber.contains(queries.next())) {
+                queries.remove();
+                invalidationCount++;
+            }
+        }
+    }
+
+    /**
+     * Removes all cached results, which is cheaper than checking every query after registering many flights
+     */
+    synchronized void invalidateAll() {
+        version++;
+        invalidationCount += results.size();
+        results.clear();
+    }
+
+    synchronized SearchCacheStats getStats() {
+        return new SearchCacheStats(hitCount, missCount, evictionCount, invalidationCount, results.size());
+    }
+}
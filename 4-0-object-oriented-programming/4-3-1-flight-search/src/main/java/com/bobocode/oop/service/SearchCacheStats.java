@@ -0,0 +1,23 @@
+package com.bobocode.oop.service;
+
+import lombok.Value;
+
+/**
+ * {@link SearchCacheStats} is an immutable snapshot of {@link SearchCache} metrics
+ */
+@Value
+public class SearchCacheStats {
+    long hitCount;
+    long missCount;
+    long evictionCount;
+    long invalidationCount;
+    int size;
+
+    /**
+     * @return a ratio of cache hits to all cache lookups, or {@code 0} if there were no lookups
+     */
+    public double getHitRate() {
+        long lookupCount = hitCount + missCount;
+        return lookupCount == 0 ? 0 : (double) hitCount / lookupCount;
+    }
+}
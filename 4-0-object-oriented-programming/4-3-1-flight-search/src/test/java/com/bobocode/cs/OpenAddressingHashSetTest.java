@@ -0,0 +1,209 @@
+package com.bobocode.cs;
+
+import org.junit.jupiter.api.MethodOrderer;
+import org.junit.jupiter.api.Order;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestMethodOrder;
+
+import java.util.ConcurrentModificationException;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+/**
+ * A test class for {@link OpenAddressingHashSet}.
+ */
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+class OpenAddressingHashSetTest {
+
+    private final Set<String> set = new OpenAddressingHashSet<>();
+
+    @Test
+    @Order(1)
+    void add() {
+        boolean added = set.add("PR344");
+
+        assertThat(added).isTrue();
+        assertThat(set).containsExactly("PR344");
+    }
+
+    @Test
+    @Order(2)
+    void addDuplicate() {
+        set.add("RB122");
+
+        boolean addedSecondTime = set.add("RB122");
+
+        assertThat(addedSecondTime).isFalse();
+        assertThat(set.size()).isEqualTo(1);
+    }
+
+    @Test
+    @Order(3)
+    void addNull() {
+        assertThatExceptionOfType(NullPointerException.class).isThrownBy(() -> set.add(null));
+    }
+
+    @Test
+    @Order(4)
+    void containsAfterResize() {
+        for (int i = 0; i < 10_000; i++) {
+            set.add("FL" + i);
+        }
+
+        assertThat(set.size()).isEqualTo(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(set.contains("FL" + i)).isTrue();
+        }
+        assertThat(set.contains("FL10000")).isFalse();
+        assertThat(set.contains(null)).isFalse();
+    }
+
+    @Test
+    @Order(5)
+    void containsCollidingElements() {
+        // "Aa" and "BB" have the same hash code
+        set.add("Aa");
+        set.add("BB");
+
+        assertThat(set.contains("Aa")).isTrue();
+        assertThat(set.contains("BB")).isTrue();
+        assertThat(set.size()).isEqualTo(2);
+    }
+
+    @Test
+    @Order(6)
+    void remove() {
+        set.add("OL234");
+        set.add("KM23234");
+
+        boolean removed = set.remove("OL234");
+
+        assertThat(removed).isTrue();
+        assertThat(set.remove("OL234")).isFalse();
+        assertThat(set).containsExactly("KM23234");
+    }
+
+    @Test
+    @Order(7)
+    void removeKeepsProbeSequences() {
+        Set<String> expected = new HashSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 5_000; i++) {
+            String element = "FL" + random.nextInt(2_000);
+            if (random.nextBoolean()) {
+                assertThat(set.add(element)).isEqualTo(expected.add(element));
+            } else {
+                assertThat(set.remove(element)).isEqualTo(expected.remove(element));
+            }
+        }
+
+        assertThat(set).containsExactlyInAnyOrderElementsOf(expected);
+        expected.forEach(element -> assertThat(set.contains(element)).isTrue());
+    }
+
+    @Test
+    @Order(8)
+    void iteratorIsFailFast() {
+        set.add("OL234");
+        set.add("KM23234");
+        Iterator<String> iterator = set.iterator();
+        iterator.next();
+
+        set.add("LTE114");
+
+        assertThatExceptionOfType(ConcurrentModificationException.class).isThrownBy(iterator::next);
+    }
+
+    @Test
+    @Order(9)
+    void clear() {
+        set.add("OL234");
+        set.add("KM23234");
+
+        set.clear();
+
+        assertThat(set).isEmpty();
+        assertThat(set.contains("OL234")).isFalse();
+    }
+
+    @Test
+    @Order(10)
+    void negativeExpectedSize() {
+        assertThatExceptionOfType(IllegalArgumentException.class).isThrownBy(() -> new OpenAddressingHashSet<>(-1));
+    }
+
+    @Test
+    @Order(11)
+    void iteratorRemove() {
+        set.add("OL234");
+        set.add("KM23234");
+        Iterator<String> iterator = set.iterator();
+        String first = iterator.next();
+
+        iterator.remove();
+
+        assertThat(set).doesNotContain(first).hasSize(1);
+        assertThatExceptionOfType(IllegalStateException.class).isThrownBy(iterator::remove);
+        assertThat(iterator.next()).isNotEqualTo(first);
+        assertThat(iterator.hasNext()).isFalse();
+    }
+
+    @Test
+    @Order(12)
+    void iteratorRemoveVisitsEveryElementOnce() {
+        // numbers whose home slots are at the end of a 16-slot table, so their probe sequences wrap around
+        int[] wrappingNumbers = IntStream.range(0, 1_000).filter(n -> homeSlot(n, 16) >= 12).limit(30).toArray();
+        Random random = new Random(42);
+        for (int round = 0; round < 1_000; round++) {
+            Set<Integer> numbers = new OpenAddressingHashSet<>();
+            Set<Integer> expected = new HashSet<>();
+            for (int i = random.nextInt(12); i > 0; i--) {
+                int number = random.nextBoolean() ? wrappingNumbers[random.nextInt(30)] : random.nextInt(40);
+                numbers.add(number);
+                expected.add(number);
+            }
+            Set<Integer> visited = new HashSet<>();
+            Set<Integer> removed = new HashSet<>();
+
+            for (Iterator<Integer> iterator = numbers.iterator(); iterator.hasNext(); ) {
+                Integer number = iterator.next();
+                assertThat(visited.add(number)).isTrue();
+                if (random.nextBoolean()) {
+                    iterator.remove();
+                    removed.add(number);
+                }
+            }
+
+            assertThat(visited).isEqualTo(expected);
+            expected.removeAll(removed);
+            assertThat(numbers).containsExactlyInAnyOrderElementsOf(expected);
+            expected.forEach(number -> assertThat(numbers.contains(number)).isTrue());
+            removed.forEach(number -> assertThat(numbers.contains(number)).isFalse());
+        }
+    }
+
+    @Test
+    @Order(13)
+    void bulkRemoval() {
+        for (int i = 0; i < 1_000; i++) {
+            set.add("FL" + i);
+        }
+
+        set.removeIf(element -> element.endsWith("7"));
+        set.retainAll(Set.of("FL1", "FL2", "FL7", "FL17", "FL3"));
+        set.removeAll(Set.of("FL3"));
+
+        assertThat(set).containsExactlyInAnyOrder("FL1", "FL2");
+    }
+
+    private static int homeSlot(int number, int tableSize) {
+        int h = Integer.hashCode(number) * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (tableSize - 1);
+    }
+}
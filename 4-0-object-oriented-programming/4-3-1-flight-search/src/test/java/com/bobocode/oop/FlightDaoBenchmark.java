@@ -0,0 +1,149 @@
+package com.bobocode.oop;
+
+import com.bobocode.cs.OpenAddressingHashSet;
+import com.bobocode.oop.data.FlightDao;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * A benchmark of {@link FlightDao} under contention. Writer threads register flight numbers while reader threads keep
+ * searching, and registration throughput and search latency percentiles are printed for indexed and packed partitions
+ * and different numbers of them. It also compares how long it takes to open a large persistent registry and look up
+ * a flight in it, when the log is replayed and when the lookup table is mapped. It is not a part of the test suite,
+ * run it with {@code mvn test -Pbenchmark -am -pl 4-0-object-oriented-programming/4-3-1-flight-search}.
+ */
+public class FlightDaoBenchmark {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int FLIGHTS_PER_WRITER = 200_000;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int PERSISTENT_FLIGHTS = 2_000_000;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 16})
+    public void registerAndSearchIndexedFlights(int partitionCount) throws Exception {
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            run("indexed", partitionCount, new FlightDao(partitionCount, OpenAddressingHashSet::new), round == WARMUP_ROUNDS);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16})
+    public void registerAndSearchPackedFlights(int partitionCount) throws Exception {
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            run("packed", partitionCount, FlightDao.packed(partitionCount), round == WARMUP_ROUNDS);
+        }
+    }
+
+    @Test
+    public void openPersistentFlights(@TempDir Path tempDir) {
+        List<String> flights = IntStream.range(0, PERSISTENT_FLIGHTS).mapToObj(i -> "FL" + i).collect(Collectors.toList());
+        Path logFile = tempDir.resolve("replayed.log");
+        Path mappedFile = tempDir.resolve("mapped.log");
+        try (FlightDao flightDao = FlightDao.open(logFile, new OpenAddressingHashSet<>())) {
+            flightDao.registerAll(flights);
+        }
+        try (FlightDao flightDao = FlightDao.openMapped(mappedFile)) {
+            flightDao.registerAll(flights);
+        }
+        open("replayed log", () -> FlightDao.open(logFile, new OpenAddressingHashSet<>()));
+        open("mapped index", () -> FlightDao.openMapped(mappedFile));
+    }
+
+    private void open(String mode, Supplier<FlightDao> opener) {
+        for (int round = 0; round <= WARMUP_ROUNDS; round++) {
+            long startedAt = System.nanoTime();
+            try (FlightDao flightDao = opener.get()) {
+                long openNanos = System.nanoTime() - startedAt;
+                boolean found = !flightDao.register("FL" + (PERSISTENT_FLIGHTS - 1));
+                long lookupNanos = System.nanoTime() - startedAt;
+                if (round == WARMUP_ROUNDS) {
+                    System.out.printf("%s flights: %d, opened in %d ms, first lookup (found: %b) after %d ms%n",
+                            mode, PERSISTENT_FLIGHTS, TimeUnit.NANOSECONDS.toMillis(openNanos), found,
+                            TimeUnit.NANOSECONDS.toMillis(lookupNanos));
+                }
+            }
+        }
+    }
+
+    private void run(String mode, int partitionCount, FlightDao flightDao, boolean report) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                int from = w * FLIGHTS_PER_WRITER;
+                writers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = from; i < from + FLIGHTS_PER_WRITER; i++) {
+                        flightDao.register("FL" + i);
+                    }
+                    return null;
+                }));
+            }
+            List<Future<long[]>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(search(flightDao, start, writing)));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(10, TimeUnit.MINUTES);
+            }
+            long writeNanos = System.nanoTime() - startedAt;
+            writing.set(false);
+            List<long[]> readerLatencies = new ArrayList<>();
+            for (Future<long[]> reader : readers) {
+                readerLatencies.add(reader.get(10, TimeUnit.MINUTES));
+            }
+            long[] latencies = readerLatencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+            if (report) {
+                System.out.printf("%s partitions: %d, registrations/sec: %d, searches: %d, p50: %d us, p99: %d us%n",
+                        mode, partitionCount, TimeUnit.SECONDS.toNanos(WRITERS * FLIGHTS_PER_WRITER) / writeNanos,
+                        latencies.length, percentile(latencies, 0.5) / 1000, percentile(latencies, 0.99) / 1000);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<long[]> search(FlightDao flightDao, CountDownLatch start, AtomicBoolean writing) {
+        return () -> {
+            start.await();
+            List<Long> latencies = new ArrayList<>();
+            while (writing.get()) {
+                long startedAt = System.nanoTime();
+                flightDao.findAllContaining("123");
+                latencies.add(System.nanoTime() - startedAt);
+            }
+            return latencies.stream().mapToLong(Long::longValue).toArray();
+        };
+    }
+
+    private static long percentile(long[] sortedValues, double percentile) {
+        if (sortedValues.length == 0) {
+            return 0;
+        }
+        return sortedValues[(int) Math.min(sortedValues.length - 1, sortedValues.length * percentile)];
+    }
+}
@@ -0,0 +1,129 @@
+package com.bobocode.oop;
+
+import com.bobocode.cs.OpenAddressingHashSet;
+import com.bobocode.oop.data.FlightDao;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A multi-threaded correctness test for {@link FlightDao}. Writer threads register overlapping ranges of flight
+ * numbers while reader threads keep searching, then the test checks that every flight was registered exactly once and
+ * that no reader observed an inconsistent result. The test runs with indexed and packed partitions and different
+ * numbers of them. Throughput and latency are measured by {@link FlightDaoBenchmark}.
+ */
+public class FlightDaoConcurrencyTest {
+
+    private static final int WRITERS = 8;
+    private static final int READERS = 4;
+    private static final int FLIGHTS_PER_WRITER = 20_000;
+
+    private FlightDao flightDao;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 4, 16})
+    public void testRegisterAndSearchUnderContention(int partitionCount) throws Exception {
+        flightDao = new FlightDao(partitionCount, OpenAddressingHashSet::new);
+        registerAndSearchUnderContention();
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 16})
+    public void testPackedRegisterAndSearchUnderContention(int partitionCount) throws Exception {
+        flightDao = FlightDao.packed(partitionCount);
+        registerAndSearchUnderContention();
+    }
+
+    private void registerAndSearchUnderContention() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        try {
+            List<Future<Integer>> writers = new ArrayList<>();
+            for (int w = 0; w < WRITERS; w++) {
+                // each range overlaps with the next one by half, so every flight is registered by two writers
+                int from = w * FLIGHTS_PER_WRITER / 2;
+                writers.add(executor.submit(registerRange(start, from, from + FLIGHTS_PER_WRITER)));
+            }
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int r = 0; r < READERS; r++) {
+                readers.add(executor.submit(search(start, writing)));
+            }
+
+            start.countDown();
+            int registered = 0;
+            for (Future<Integer> writer : writers) {
+                registered += writer.get(1, TimeUnit.MINUTES);
+            }
+            writing.set(false);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(1, TimeUnit.MINUTES) > 0);
+            }
+
+            int distinctFlights = (WRITERS + 1) * FLIGHTS_PER_WRITER / 2;
+            assertEquals(distinctFlights, registered);
+            assertEquals(distinctFlights, flightDao.findAll().size());
+            assertEquals(List.of("FL1234", "FL12340", "FL12341"), flightDao.findAllStartingWith("FL1234", 3));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Callable<Integer> registerRange(CountDownLatch start, int from, int to) {
+        return () -> {
+            start.await();
+            int registered = 0;
+            for (int i = from; i < to; i++) {
+                if (flightDao.register("FL" + i)) {
+                    registered++;
+                }
+            }
+            return registered;
+        };
+    }
+
+    /**
+     * Keeps searching while flights are registered, and once more after that, and returns the number of searches
+     */
+    private Callable<Integer> search(CountDownLatch start, AtomicBoolean writing) {
+        return () -> {
+            start.await();
+            int searches = 0;
+            int previousSize = 0;
+            boolean lastSearch = false;
+            while (!lastSearch) {
+                lastSearch = !writing.get();
+                List<String> found = flightDao.findAllContaining("123");
+                found.forEach(flight -> assertTrue(flight.contains("123")));
+
+                List<String> byPrefix = flightDao.findAllStartingWith("FL99", 50);
+                for (int i = 1; i < byPrefix.size(); i++) {
+                    assertTrue(byPrefix.get(i - 1).compareTo(byPrefix.get(i)) < 0);
+                }
+
+                Set<String> all = flightDao.findAll();
+                int iterated = 0;
+                for (String ignored : all) {
+                    iterated++;
+                }
+                assertEquals(all.size(), iterated);
+                assertTrue(iterated >= previousSize);
+                previousSize = iterated;
+                searches++;
+            }
+            return searches;
+        };
+    }
+}
@@ -1,10 +1,23 @@
 package com.bobocode.oop;
 
+import com.bobocode.oop.data.FlightDao;
+import com.bobocode.oop.data.FlightDaoException;
 import com.bobocode.oop.factory.FlightServiceFactory;
 import com.bobocode.oop.service.FlightService;
+import com.bobocode.oop.service.SearchCacheStats;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -28,6 +41,14 @@ public class FlightServiceTest {
         assertFalse(registeredSecondTime);
     }
 
+    @Test
+    public void testFlightDaoRejectsNonEmptyStorage() {
+        Set<String> flights = new HashSet<>(Set.of("PR344"));
+
+        assertThrows(IllegalArgumentException.class, () -> new FlightDao(flights));
+        assertThrows(IllegalArgumentException.class, () -> new FlightDao(2, () -> flights));
+    }
+
     @Test
     public void testSearchExistingFlightByFullNumber() {
         flightService.registerFlight("OL234");
@@ -62,4 +83,408 @@ public class FlightServiceTest {
         assertTrue(foundFlights.contains("RLR198"));
         assertEquals(3, foundFlights.size());
     }
+
+    @Test
+    public void testSearchFlightsByLongQuery() {
+        flightService.registerFlight("LH1234");
+        flightService.registerFlight("UA1234");
+        flightService.registerFlight("LH4123");
+        flightService.registerFlight("LH12");
+
+        List<String> foundFlights = flightService.searchFlights("H123");
+
+        assertEquals(List.of("LH1234"), foundFlights);
+    }
+
+    @Test
+    public void testSearchFlightsVerifiesTrigramCandidates() {
+        flightService.registerFlight("AB123XAB");
+        flightService.registerFlight("AAAA");
+
+        assertEquals(List.of(), flightService.searchFlights("AB12XAB"));
+        assertEquals(List.of("AB123XAB"), flightService.searchFlights("3XAB"));
+        assertEquals(List.of("AAAA"), flightService.searchFlights("AAAA"));
+        assertEquals(List.of(), flightService.searchFlights("AAAAA"));
+    }
+
+    @Test
+    public void testSearchFlightsByEmptyQuery() {
+        flightService.registerFlight("OL234");
+        flightService.registerFlight("BRT14");
+
+        List<String> foundFlights = flightService.searchFlights("");
+
+        assertEquals(List.of("OL234", "BRT14"), foundFlights);
+    }
+
+    @Test
+    public void testSearchFlightsByPrefix() {
+        flightService.registerFlight("UA15");
+        flightService.registerFlight("LH400");
+        flightService.registerFlight("UA1");
+        flightService.registerFlight("LH41");
+        flightService.registerFlight("UA123");
+        flightService.registerFlight("L");
+
+        assertEquals(List.of("LH400", "LH41"), flightService.searchFlightsByPrefix("LH"));
+        assertEquals(List.of("UA1", "UA123", "UA15"), flightService.searchFlightsByPrefix("UA1"));
+        assertEquals(List.of("LH400"), flightService.searchFlightsByPrefix("LH40"));
+        assertEquals(List.of(), flightService.searchFlightsByPrefix("LH5"));
+        assertEquals(List.of(), flightService.searchFlightsByPrefix("UA1234"));
+        assertEquals(List.of("L", "LH400", "LH41", "UA1", "UA123", "UA15"), flightService.searchFlightsByPrefix(""));
+    }
+
+    @Test
+    public void testSearchFlightsByPrefixWithLimit() {
+        flightService.registerFlight("UA15");
+        flightService.registerFlight("UA1");
+        flightService.registerFlight("UA123");
+        flightService.registerFlight("LH41");
+
+        assertEquals(List.of("UA1", "UA123"), flightService.searchFlightsByPrefix("UA", 2));
+        assertEquals(List.of(), flightService.searchFlightsByPrefix("UA", 0));
+        assertThrows(IllegalArgumentException.class, () -> flightService.searchFlightsByPrefix("UA", -1));
+    }
+
+    @Test
+    public void testSearchFlightsPage() {
+        flightService.registerFlight("LH11");
+        flightService.registerFlight("UA12");
+        flightService.registerFlight("LH13");
+        flightService.registerFlight("UA21");
+        flightService.registerFlight("LH14");
+
+        assertEquals(List.of("LH11", "UA12"), flightService.searchFlights("1", 0, 2));
+        assertEquals(List.of("LH13", "UA21"), flightService.searchFlights("1", 2, 2));
+        assertEquals(List.of("LH14"), flightService.searchFlights("1", 4, 2));
+        assertEquals(List.of(), flightService.searchFlights("1", 5, 2));
+        assertThrows(IllegalArgumentException.class, () -> flightService.searchFlights("1", -1, 2));
+        assertThrows(IllegalArgumentException.class, () -> flightService.searchFlights("1", 0, -2));
+    }
+
+    @Test
+    public void testStreamFlights() {
+        flightService.registerFlight("LH1234");
+        flightService.registerFlight("UA1234");
+        flightService.registerFlight("LH4321");
+
+        List<String> foundFlights = flightService.streamFlights("1234")
+                .limit(1)
+                .collect(Collectors.toList());
+
+        assertEquals(List.of("LH1234"), foundFlights);
+        assertEquals(2, flightService.streamFlights("234").count());
+    }
+
+    @Test
+    public void testPersistentFlightsSurviveRestart(@TempDir Path tempDir) {
+        Path registryFile = tempDir.resolve("flights.log");
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            FlightService persistentFlightService = new FlightService(flightDao);
+            persistentFlightService.registerFlight("LH1234");
+            persistentFlightService.registerFlight("UA1234");
+            persistentFlightService.registerFlight("LH1234");
+        }
+
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            FlightService persistentFlightService = new FlightService(flightDao);
+
+            assertFalse(persistentFlightService.registerFlight("UA1234"));
+            assertTrue(persistentFlightService.registerFlight("ÜA99"));
+            assertEquals(List.of("LH1234", "UA1234"), persistentFlightService.searchFlights("1234"));
+        }
+
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            assertEquals(Set.of("LH1234", "UA1234", "ÜA99"), flightDao.findAll());
+        }
+    }
+
+    @Test
+    public void testPersistentFlightsIgnoreIncompleteRecord(@TempDir Path tempDir) throws IOException {
+        Path registryFile = tempDir.resolve("flights.log");
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            flightDao.register("LH1234");
+        }
+        Files.write(registryFile, new byte[]{0, 6, 'U', 'A'}, StandardOpenOption.APPEND);
+
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            flightDao.register("UA1234");
+        }
+
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            assertEquals(List.of("LH1234", "UA1234"), flightDao.findAllContaining("1234"));
+        }
+    }
+
+    @Test
+    public void testSearchFlightsIsCached() {
+        flightService.registerFlight("LH1234");
+        flightService.registerFlight("UA1234");
+
+        List<String> foundFlights = flightService.searchFlights("LH");
+        foundFlights.add("XX0000");
+        List<String> foundFlightsSecondTime = flightService.searchFlights("LH");
+
+        assertEquals(List.of("LH1234"), foundFlightsSecondTime);
+        SearchCacheStats stats = flightService.getSearchCacheStats();
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getSize());
+    }
+
+    @Test
+    public void testRegisterFlightInvalidatesOnlyMatchingQueries() {
+        flightService.registerFlight("LH1234");
+        flightService.searchFlights("LH");
+        flightService.searchFlights("UA");
+
+        flightService.registerFlight("LH999");
+
+        assertEquals(List.of("LH1234", "LH999"), flightService.searchFlights("LH"));
+        assertEquals(List.of(), flightService.searchFlights("UA"));
+        SearchCacheStats stats = flightService.getSearchCacheStats();
+        assertEquals(1, stats.getInvalidationCount());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(3, stats.getMissCount());
+    }
+
+    @Test
+    public void testSearchCacheEvictsLeastRecentlyUsedQuery() {
+        FlightService smallCacheFlightService = new FlightService(new FlightDao(), 2);
+        smallCacheFlightService.registerFlight("LH1234");
+
+        smallCacheFlightService.searchFlights("LH");
+        smallCacheFlightService.searchFlights("12");
+        smallCacheFlightService.searchFlights("LH");
+        smallCacheFlightService.searchFlights("34");
+        smallCacheFlightService.searchFlights("LH");
+
+        SearchCacheStats stats = smallCacheFlightService.getSearchCacheStats();
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getHitCount());
+    }
+
+    @Test
+    public void testRegisterAll() {
+        flightService.registerFlight("LH1234");
+        flightService.searchFlights("12");
+
+        BitSet registered = flightService.registerAll(List.of("UA1234", "LH1234", "BA12", "UA1234"));
+
+        assertEquals(BitSet.valueOf(new long[]{0b0101}), registered);
+        assertEquals(List.of("LH1234", "UA1234", "BA12"), flightService.searchFlights("12"));
+        assertEquals(List.of("BA12", "LH1234", "UA1234"), flightService.searchFlightsByPrefix(""));
+    }
+
+    @Test
+    public void testRegisterAllFromStream() {
+        BitSet registered = flightService.registerAll(IntStream.range(0, 1000).mapToObj(i -> "FL" + i % 500));
+
+        assertEquals(500, registered.cardinality());
+        assertEquals(500, registered.nextClearBit(0));
+        assertEquals(List.of("FL499"), flightService.searchFlights("499"));
+    }
+
+    @Test
+    public void testPersistentRegisterAll(@TempDir Path tempDir) {
+        Path registryFile = tempDir.resolve("flights.log");
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            flightDao.register("LH1234");
+            flightDao.registerAll(List.of("UA1234", "LH1234", "BA12"));
+        }
+
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            assertEquals(List.of("LH1234", "UA1234", "BA12"), flightDao.findAllContaining("12"));
+        }
+    }
+
+    @Test
+    public void testSearchPartitionedFlights() {
+        FlightService partitionedFlightService = new FlightService(new FlightDao(4, HashSet::new));
+        BitSet registered = partitionedFlightService.registerAll(
+                IntStream.range(0, 1000).mapToObj(i -> "FL" + i % 700));
+
+        assertEquals(700, registered.cardinality());
+        assertFalse(partitionedFlightService.registerFlight("FL42"));
+        assertTrue(partitionedFlightService.registerFlight("FL700"));
+        assertEquals(List.of("FL169"), partitionedFlightService.searchFlights("169"));
+        assertEquals(17, partitionedFlightService.searchFlights("69").size());
+        assertEquals(List.of("FL7", "FL70", "FL700", "FL71"), partitionedFlightService.searchFlightsByPrefix("FL7", 4));
+        assertEquals(12, partitionedFlightService.searchFlightsByPrefix("FL7").size());
+        assertEquals(3, partitionedFlightService.searchFlights("69", 0, 3).size());
+    }
+
+    @Test
+    public void testPersistentPartitionedFlights(@TempDir Path tempDir) {
+        Path registryFile = tempDir.resolve("flights.log");
+        try (FlightDao flightDao = FlightDao.open(registryFile, 4, HashSet::new)) {
+            flightDao.registerAll(List.of("LH1234", "UA1234", "BA12"));
+            flightDao.register("AF12");
+        }
+
+        try (FlightDao flightDao = FlightDao.open(registryFile, 2, HashSet::new)) {
+            assertEquals(Set.of("LH1234", "UA1234", "BA12", "AF12"), flightDao.findAll());
+            assertEquals(List.of("AF12", "BA12", "LH1234", "UA1234"), flightDao.findAllStartingWith(""));
+        }
+    }
+
+    @Test
+    public void testSearchPackedFlights() {
+        FlightService packedFlightService = new FlightService(FlightDao.packed(4));
+        BitSet registered = packedFlightService.registerAll(
+                IntStream.range(0, 100_000).mapToObj(i -> "FL" + i % 70_000));
+
+        assertEquals(70_000, registered.cardinality());
+        assertFalse(packedFlightService.registerFlight("FL42"));
+        assertTrue(packedFlightService.registerFlight("FL70000"));
+        assertEquals(List.of("FL16900"), packedFlightService.searchFlights("L16900"));
+        assertEquals(List.of("FL6", "FL60", "FL600", "FL6000"), packedFlightService.searchFlightsByPrefix("FL6", 4));
+        assertEquals(11111, packedFlightService.searchFlightsByPrefix("FL6").size());
+        assertEquals(70_001, packedFlightService.searchFlights("FL").size());
+        assertTrue(packedFlightService.searchFlights("FL00").isEmpty());
+    }
+
+    @Test
+    public void testPackedFlightsRejectNonLatinFlightNumbers() {
+        FlightDao flightDao = FlightDao.packed(1);
+
+        assertThrows(IllegalArgumentException.class, () -> flightDao.register("ЛГ123"));
+        assertThrows(IllegalArgumentException.class, () -> flightDao.registerAll(List.of("LH1234", "ЛГ123")));
+        assertTrue(flightDao.findAll().isEmpty());
+        assertTrue(flightDao.findAllContaining("Л").isEmpty());
+    }
+
+    @Test
+    public void testFindAllSnapshotLooksUpFlights(@TempDir Path tempDir) {
+        List<String> flights = IntStream.range(0, 10_000).mapToObj(i -> "FL" + i).collect(Collectors.toList());
+        try (FlightDao mappedFlightDao = FlightDao.openMapped(tempDir.resolve("flights.log"))) {
+            for (FlightDao flightDao : List.of(new FlightDao(4, HashSet::new), FlightDao.packed(4), mappedFlightDao)) {
+                flightDao.registerAll(flights);
+                Set<String> snapshot = flightDao.findAll();
+                flightDao.registerAll(List.of("LH1234", "FL10000"));
+
+                assertTrue(snapshot.contains("FL9999"));
+                assertTrue(snapshot.containsAll(List.of("FL0", "FL42", "FL5000")));
+                assertFalse(snapshot.contains("LH1234"));
+                assertFalse(snapshot.contains("FL10000"));
+                assertFalse(snapshot.contains("ЛГ123"));
+                assertFalse(snapshot.contains(42));
+                assertEquals(new HashSet<>(flights), snapshot);
+            }
+        }
+    }
+
+    @Test
+    public void testPersistentPackedFlights(@TempDir Path tempDir) {
+        Path registryFile = tempDir.resolve("flights.log");
+        try (FlightDao flightDao = FlightDao.openPacked(registryFile, 2)) {
+            flightDao.registerAll(List.of("LH1234", "UA1234", "BA12", "LH1234"));
+            flightDao.register("AF12");
+        }
+
+        try (FlightDao flightDao = FlightDao.openPacked(registryFile, 3)) {
+            assertEquals(Set.of("LH1234", "UA1234", "BA12", "AF12"), flightDao.findAll());
+            assertFalse(flightDao.register("BA12"));
+            assertEquals(List.of("LH1234", "UA1234"), flightDao.findAllStartingWith("")
+                    .stream().filter(flight -> flight.contains("1234")).collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testMappedFlightsSurviveRestart(@TempDir Path tempDir) {
+        Path registryFile = tempDir.resolve("flights.log");
+        List<String> flights = IntStream.range(0, 20_000).mapToObj(i -> "FL" + i).collect(Collectors.toList());
+        try (FlightDao flightDao = FlightDao.openMapped(registryFile)) {
+            assertTrue(flightDao.register("LH1234"));
+            assertTrue(flightDao.register("ÜA1234"));
+            assertFalse(flightDao.register("LH1234"));
+            assertEquals(20_000, flightDao.registerAll(flights).cardinality());
+        }
+
+        try (FlightDao flightDao = FlightDao.openMapped(registryFile)) {
+            assertEquals(20_002, flightDao.findAll().size());
+            assertFalse(flightDao.register("FL19999"));
+            assertTrue(flightDao.register("BA12"));
+            assertEquals(List.of("ÜA1234"), flightDao.findAllContaining("A123"));
+            assertEquals(List.of("LH1234"), flightDao.findAllContaining("H12"));
+            assertEquals(List.of("FL1999", "FL11999"), flightDao.findAllContaining("1999").subList(0, 2));
+            assertEquals(List.of("FL1999", "FL19990", "FL19991"), flightDao.findAllStartingWith("FL1999", 3));
+            assertEquals(List.of("ÜA1234"), flightDao.findAllStartingWith("Ü"));
+        }
+
+        try (FlightDao flightDao = FlightDao.openMapped(registryFile)) {
+            Set<String> expected = new HashSet<>(flights);
+            expected.addAll(List.of("LH1234", "ÜA1234", "BA12"));
+            assertEquals(expected, flightDao.findAll());
+        }
+    }
+
+    @Test
+    public void testMappedFlightsRecoverRecordsMissingFromIndex(@TempDir Path tempDir) throws IOException {
+        Path registryFile = tempDir.resolve("flights.log");
+        try (FlightDao flightDao = FlightDao.openMapped(registryFile)) {
+            flightDao.register("LH1234");
+        }
+        Files.write(registryFile, new byte[]{0, 6, 'U', 'A', '1', '2', '3', '4', 0, 6, 'U', 'A'},
+                StandardOpenOption.APPEND);
+
+        try (FlightDao flightDao = FlightDao.openMapped(registryFile)) {
+            assertEquals(Set.of("LH1234", "UA1234"), flightDao.findAll());
+            assertFalse(flightDao.register("UA1234"));
+            assertTrue(flightDao.register("BA12"));
+        }
+
+        Files.delete(tempDir.resolve("flights.log.index"));
+        try (FlightDao flightDao = FlightDao.openMapped(registryFile)) {
+            assertEquals(Set.of("LH1234", "UA1234", "BA12"), flightDao.findAll());
+            assertFalse(flightDao.register("BA12"));
+        }
+
+        try (FlightDao flightDao = FlightDao.open(registryFile)) {
+            assertEquals(List.of("LH1234", "UA1234", "BA12"), flightDao.findAllContaining(""));
+        }
+    }
+
+    @Test
+    public void testMappedFlightsRejectEmptyFlightNumber(@TempDir Path tempDir) {
+        try (FlightDao flightDao = FlightDao.openMapped(tempDir.resolve("flights.log"))) {
+            assertThrows(IllegalArgumentException.class, () -> flightDao.register(""));
+            assertTrue(flightDao.findAll().isEmpty());
+        }
+    }
+
+    @Test
+    public void testPersistentFlightsRejectEmptyFlightNumber(@TempDir Path tempDir) {
+        try (FlightDao flightDao = FlightDao.open(tempDir.resolve("flights.log"))) {
+            assertThrows(IllegalArgumentException.class, () -> flightDao.register(""));
+            assertThrows(IllegalArgumentException.class, () -> flightDao.registerAll(List.of("LH1234", "")));
+            assertTrue(flightDao.findAll().isEmpty());
+        }
+    }
+
+    @Test
+    public void testMappedFlightsKeepRecordsAfterEmptyRecord(@TempDir Path tempDir) throws IOException {
+        Path registryFile = tempDir.resolve("flights.log");
+        byte[] log = {0, 4, 'B', 'A', '1', '2', 0, 0, 0, 6, 'L', 'H', '1', '2', '3', '4'};
+        Files.write(registryFile, log);
+
+        assertThrows(FlightDaoException.class, () -> FlightDao.openMapped(registryFile));
+        assertArrayEquals(log, Files.readAllBytes(registryFile));
+    }
+
+    @Test
+    public void testPersistentFlightServiceClosesItsFiles(@TempDir Path tempDir) {
+        Path registryFile = tempDir.resolve("flights.log");
+        FlightServiceFactory flightServiceFactory = new FlightServiceFactory();
+        try (FlightService persistentFlightService = flightServiceFactory.createPersistentFlightService(registryFile)) {
+            persistentFlightService.registerFlight("LH1234");
+            persistentFlightService.registerAll(List.of("UA1234", "BA12"));
+        }
+
+        try (FlightService persistentFlightService = flightServiceFactory.createPersistentFlightService(registryFile)) {
+            assertFalse(persistentFlightService.registerFlight("BA12"));
+            assertEquals(List.of("LH1234", "UA1234"), persistentFlightService.searchFlights("1234"));
+        }
+    }
 }